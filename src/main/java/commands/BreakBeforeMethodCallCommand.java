@@ -1,8 +1,7 @@
 package commands;
-import com.sun.jdi.Method;
-import com.sun.jdi.ReferenceType;
-import com.sun.jdi.request.MethodEntryRequest;
+import managers.BreakpointManager;
 import models.DebuggerState;
+import models.MethodBreakpoint;
 class BreakBeforeMethodCallCommand implements Command {
     private String methodName;
     public BreakBeforeMethodCallCommand(String methodName) {
@@ -10,17 +9,11 @@ class BreakBeforeMethodCallCommand implements Command {
     }
     @Override
     public CommandResult execute(DebuggerState state) throws Exception {
-        MethodEntryRequest req = state.getVm().eventRequestManager()
-                .createMethodEntryRequest();
-        for (ReferenceType type : state.getVm().allClasses()) {
-            for (Method m : type.methods()) {
-                if (m.name().equals(methodName)) {
-                    req.addClassFilter(type);
-                }
-            }
+        if (state.isHistoryMode()) {
+            return CommandResult.error("Method breakpoints are only available in live mode.");
         }
-        req.enable();
-        state.getMethodBreakpoints().put(methodName, req);
-        return CommandResult.success("Method entry breakpoint set on " + methodName, req);
+        MethodBreakpoint mbp = new BreakpointManager(state).createMethodBreakpoint(methodName);
+        String status = mbp.getRequests().isEmpty() ? " (pending until a matching class is loaded)" : "";
+        return CommandResult.success("Method entry breakpoint set on " + methodName + status, mbp);
     }
 }
@@ -15,7 +15,8 @@ public class BreakCommand implements Command {
         BreakpointManager manager = new BreakpointManager(state);
         Optional<Breakpoint> bp = manager.createBreakpoint(fileName, lineNumber);
         if (bp.isPresent()) {
-            String mode = state.isReplayMode() ? " (replay mode)" : "";
+            String mode = state.isBrowsingWhileRecording() ? " (recorded steps, recording in progress)"
+                : state.isReplayMode() ? " (replay mode)" : "";
             return CommandResult.success("Breakpoint set" + mode, bp.get());
         }
         return CommandResult.error("Could not set breakpoint at " + fileName + ":" + lineNumber);
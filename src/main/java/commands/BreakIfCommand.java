@@ -0,0 +1,27 @@
+package commands;
+import managers.BreakpointManager;
+import models.Breakpoint;
+import models.DebuggerState;
+import java.util.Optional;
+class BreakIfCommand implements Command {
+    private final String fileName;
+    private final int lineNumber;
+    private final String condition;
+    public BreakIfCommand(String fileName, int lineNumber, String condition) {
+        this.fileName = fileName;
+        this.lineNumber = lineNumber;
+        this.condition = condition;
+    }
+    @Override
+    public CommandResult execute(DebuggerState state) throws Exception {
+        if (!state.isHistoryMode()) {
+            return CommandResult.error("Conditional breakpoints are only available in replay mode.");
+        }
+        BreakpointManager manager = new BreakpointManager(state);
+        Optional<Breakpoint> bp = manager.createConditionalBreakpoint(fileName, lineNumber, condition);
+        if (bp.isPresent()) {
+            return CommandResult.success("Conditional breakpoint set (replay mode)", bp.get());
+        }
+        return CommandResult.error("Could not set breakpoint at " + fileName + ":" + lineNumber);
+    }
+}
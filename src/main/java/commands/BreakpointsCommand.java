@@ -1,16 +1,16 @@
 package commands;
-import models.Breakpoint;
 import models.DebuggerState;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Map;
+import java.util.List;
 class BreakpointsCommand implements Command {
     @Override
     public CommandResult execute(DebuggerState state) throws Exception {
-        Map<String, Breakpoint> bps = state.getBreakpoints();
+        List<Object> bps = new ArrayList<>(state.getBreakpoints().values());
+        bps.addAll(state.getMethodBreakpoints().values());
         if (bps.isEmpty()) {
             return CommandResult.success("No breakpoints set", Collections.emptyList());
         }
-        return CommandResult.success(new ArrayList<>(bps.values()));
+        return CommandResult.success(bps);
     }
 }
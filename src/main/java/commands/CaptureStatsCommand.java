@@ -0,0 +1,18 @@
+package commands;
+import models.CapturePolicy;
+import models.DebuggerState;
+class CaptureStatsCommand implements Command {
+    private static final int DEFAULT_LIMIT = 20;
+    private final int limit;
+    CaptureStatsCommand() {
+        this(DEFAULT_LIMIT);
+    }
+    CaptureStatsCommand(int limit) {
+        this.limit = limit;
+    }
+    @Override
+    public CommandResult execute(DebuggerState state) {
+        CapturePolicy policy = state.getCapturePolicy();
+        return CommandResult.success(policy + "\nCapture cost by type:\n" + policy.getStats().report(limit), null);
+    }
+}
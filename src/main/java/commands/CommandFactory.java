@@ -2,4 +2,11 @@ package commands;
 @FunctionalInterface
 public interface CommandFactory {
     Command create(String[] args) throws Exception;
+    /**
+     * @param text ce qui suit le nom de la commande, tel que tapé : les espaces d'une
+     *             chaîne littérale y sont conservés, contrairement à {@code args}
+     */
+    default Command create(String[] args, String text) throws Exception {
+        return create(args);
+    }
 }
@@ -37,6 +37,29 @@ public class CommandInterpreter {
         commandDescriptions.put(name, description);
         commandCategories.put(name, category);
     }
+    /** Commande qui lit le texte brut de la ligne : requête ou condition. */
+    @FunctionalInterface
+    interface TextCommandFactory {
+        Command create(String[] args, String text) throws Exception;
+    }
+    private void registerTextCommand(String name, TextCommandFactory factory,
+            String description, CommandCategory category) {
+        registerCommand(name, new CommandFactory() {
+            @Override
+            public Command create(String[] args) throws Exception {
+                return factory.create(args, String.join(" ", args));
+            }
+            @Override
+            public Command create(String[] args, String text) throws Exception {
+                return factory.create(args, text);
+            }
+        }, description, category);
+    }
+    /** Texte après les {@code words} premiers mots, espaces intérieurs conservés. */
+    static String textAfter(String text, int words) {
+        String[] parts = text.strip().split("\\s+", words + 1);
+        return parts.length > words ? parts[words] : "";
+    }
     public void registerSimpleCommand(String name, Command command,
             String description, CommandCategory category) {
         registerCommand(name, args -> command, description, category);
@@ -54,6 +77,22 @@ public class CommandInterpreter {
             "Go forward one step in history", CommandCategory.HISTORY);
         registerCommand("history", args -> new HistoryCommand(),
             "Show execution history", CommandCategory.HISTORY);
+        registerCommand("capture-stats", args -> args.length > 0
+                ? new CaptureStatsCommand(Integer.parseInt(args[0])) : new CaptureStatsCommand(),
+            "Show the variable capture policy and its cost per type: capture-stats [count]", CommandCategory.HISTORY);
+        registerCommand("goto", args -> {
+            if (args.length < 1) {
+                throw new IllegalArgumentException("goto requires a step number");
+            }
+            return new GotoCommand(Integer.parseInt(args[0]));
+        }, "Travel to a recorded step: goto <step>", CommandCategory.HISTORY);
+        registerTextCommand("query", (args, text) -> {
+            if (args.length < 1) {
+                throw new IllegalArgumentException("query requires a query, e.g. query steps where x > 10 in Foo.bar");
+            }
+            return new QueryCommand(text);
+        }, "Query the trace: query steps|first step where <expr> [in <Class.method>] | query calls to <Class.method(sig)> [where <expr>]",
+            CommandCategory.HISTORY);
         registerCommand("frame", args -> new FrameCommand(),
             "Show current frame", CommandCategory.INSPECTION);
         registerCommand("temporaries", args -> new TemporariesCommand(),
@@ -94,6 +133,31 @@ public class CommandInterpreter {
             }
             return new BreakOnCountCommand(args[0], Integer.parseInt(args[1]), Integer.parseInt(args[2]));
         }, "Set count breakpoint: break-on-count <file> <line> <count>", CommandCategory.BREAKPOINTS);
+        registerTextCommand("break-if", (args, text) -> {
+            if (args.length < 3) {
+                throw new IllegalArgumentException("break-if requires fileName, lineNumber, and condition");
+            }
+            return new BreakIfCommand(args[0], Integer.parseInt(args[1]), textAfter(text, 2));
+        }, "Set conditional breakpoint (replay): break-if <file> <line> <condition>", CommandCategory.BREAKPOINTS);
+        registerTextCommand("condition", (args, text) -> {
+            if (args.length < 2) {
+                throw new IllegalArgumentException("condition requires fileName and lineNumber");
+            }
+            String condition = args.length > 2 ? textAfter(text, 2) : null;
+            return new ConditionCommand(args[0], Integer.parseInt(args[1]), condition);
+        }, "Set or clear a breakpoint condition (replay): condition <file> <line> [condition]", CommandCategory.BREAKPOINTS);
+        registerCommand("thread-filter", args -> {
+            if (args.length < 3) {
+                throw new IllegalArgumentException("thread-filter requires fileName, lineNumber, and thread name");
+            }
+            return new ThreadFilterCommand(args[0], Integer.parseInt(args[1]), args[2]);
+        }, "Stop only in one thread (live): thread-filter <file> <line> <thread>", CommandCategory.BREAKPOINTS);
+        registerCommand("instance-filter", args -> {
+            if (args.length < 3) {
+                throw new IllegalArgumentException("instance-filter requires fileName, lineNumber, and variable");
+            }
+            return new InstanceFilterCommand(args[0], Integer.parseInt(args[1]), args[2]);
+        }, "Stop only when 'this' is the given object (live): instance-filter <file> <line> <variable>", CommandCategory.BREAKPOINTS);
         registerCommand("breakpoints", args -> new BreakpointsCommand(),
             "List all breakpoints", CommandCategory.BREAKPOINTS);
         registerCommand("break-before-method-call", args -> {
@@ -101,7 +165,7 @@ public class CommandInterpreter {
                 throw new IllegalArgumentException("break-before-method-call requires method name");
             }
             return new BreakBeforeMethodCallCommand(args[0]);
-        }, "Break before method call: break-before-method-call <method>", CommandCategory.BREAKPOINTS);
+        }, "Break before method call: break-before-method-call [Class.]<method>[(signature)]", CommandCategory.BREAKPOINTS);
     }
     public Command parse(String input) throws Exception {
         String[] parts = input.trim().split("\\s+");
@@ -114,7 +178,7 @@ public class CommandInterpreter {
         if (factory == null) {
             throw new IllegalArgumentException("Unknown command: " + commandName);
         }
-        return factory.create(args);
+        return factory.create(args, textAfter(input, 1));
     }
     public Set<String> getAvailableCommands() {
         return commandFactories.keySet();
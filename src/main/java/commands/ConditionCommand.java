@@ -0,0 +1,28 @@
+package commands;
+import managers.BreakpointManager;
+import models.Breakpoint;
+import models.DebuggerState;
+import java.util.Optional;
+class ConditionCommand implements Command {
+    private final String fileName;
+    private final int lineNumber;
+    private final String condition;
+    public ConditionCommand(String fileName, int lineNumber, String condition) {
+        this.fileName = fileName;
+        this.lineNumber = lineNumber;
+        this.condition = condition;
+    }
+    @Override
+    public CommandResult execute(DebuggerState state) throws Exception {
+        if (!state.isHistoryMode()) {
+            return CommandResult.error("Breakpoint conditions are only available in replay mode.");
+        }
+        BreakpointManager manager = new BreakpointManager(state);
+        Optional<Breakpoint> bp = manager.setCondition(fileName, lineNumber, condition);
+        if (bp.isEmpty()) {
+            return CommandResult.error("No breakpoint at " + fileName + ":" + lineNumber);
+        }
+        String message = condition == null ? "Condition removed" : "Condition set";
+        return CommandResult.success(message, bp.get());
+    }
+}
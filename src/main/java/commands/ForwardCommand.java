@@ -7,13 +7,12 @@ public class ForwardCommand implements Command {
         if (state.getExecutionHistory() == null || state.getExecutionHistory().isEmpty()) {
             return CommandResult.error("No execution history available. Run in recording mode first.");
         }
-        if (!state.isReplayMode()) {
+        if (!state.isHistoryMode()) {
             return CommandResult.error("Forward command only available in replay mode.");
         }
-        if (!state.getExecutionHistory().hasNext()) {
+        if (!state.getExecutionHistory().forward()) {
             return CommandResult.error("Already at the end of execution history.");
         }
-        state.getExecutionHistory().forward();
         ExecutionSnapshot snapshot = state.getExecutionHistory().getCurrentSnapshot();
         return new CommandResult(true, snapshot.toDetailedString(), snapshot);
     }
@@ -1,11 +1,12 @@
 package commands;
+import io.SourceRepository;
 import models.DebugFrame;
 import models.DebuggerState;
 import models.ExecutionSnapshot;
 class FrameCommand implements Command {
     @Override
     public CommandResult execute(DebuggerState state) throws Exception {
-        if (state.isReplayMode() && state.getExecutionHistory() != null) {
+        if (state.isHistoryMode() && state.getExecutionHistory() != null) {
             ExecutionSnapshot snapshot = state.getExecutionHistory().getCurrentSnapshot();
             if (snapshot == null) {
                 return CommandResult.error("No current execution state");
@@ -18,14 +19,11 @@ class FrameCommand implements Command {
             sb.append("Current Frame (from recorded state):\n");
             sb.append("  Location: ").append(topFrame.getSourceFile()).append(":").append(topFrame.getLineNumber()).append("\n");
             sb.append("  Method: ").append(topFrame.getClassName()).append(".").append(topFrame.getMethodName()).append("()\n");
+            SourceRepository.getInstance()
+                    .getLine(topFrame.getClassName(), topFrame.getSourceFile(), topFrame.getLineNumber())
+                    .ifPresent(line -> sb.append("  Source: ").append(line.trim()).append("\n"));
             sb.append("  Local Variables:\n");
-            if (snapshot.getLocalVariables().isEmpty()) {
-                sb.append("    (none)\n");
-            } else {
-                for (var entry : snapshot.getLocalVariables().entrySet()) {
-                    sb.append("    ").append(entry.getKey()).append(" = ").append(entry.getValue()).append("\n");
-                }
-            }
+            snapshot.appendLocals(sb, "    ");
             return CommandResult.success(sb.toString(), topFrame);
         }
         DebugFrame frame = state.getContext().getCurrentFrame();
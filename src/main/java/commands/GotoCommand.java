@@ -0,0 +1,25 @@
+package commands;
+import models.DebuggerState;
+import models.ExecutionHistory;
+import models.ExecutionSnapshot;
+class GotoCommand implements Command {
+    private final int stepNumber;
+    public GotoCommand(int stepNumber) {
+        this.stepNumber = stepNumber;
+    }
+    @Override
+    public CommandResult execute(DebuggerState state) {
+        ExecutionHistory history = state.getExecutionHistory();
+        if (history == null || history.isEmpty()) {
+            return CommandResult.error("No execution history available. Run in recording mode first.");
+        }
+        if (!state.isHistoryMode()) {
+            return CommandResult.error("Goto command only available in replay mode.");
+        }
+        if (!history.goToStep(stepNumber)) {
+            return CommandResult.error("Step #" + stepNumber + " not found (0-" + (history.size() - 1) + ").");
+        }
+        ExecutionSnapshot snapshot = history.getCurrentSnapshot();
+        return new CommandResult(true, snapshot.toDetailedString(), snapshot);
+    }
+}
@@ -0,0 +1,27 @@
+package commands;
+import managers.BreakpointManager;
+import models.Breakpoint;
+import models.DebuggerState;
+import java.util.Optional;
+class InstanceFilterCommand implements Command {
+    private final String fileName;
+    private final int lineNumber;
+    private final String variableName;
+    public InstanceFilterCommand(String fileName, int lineNumber, String variableName) {
+        this.fileName = fileName;
+        this.lineNumber = lineNumber;
+        this.variableName = variableName;
+    }
+    @Override
+    public CommandResult execute(DebuggerState state) throws Exception {
+        if (state.isHistoryMode()) {
+            return CommandResult.error("Instance filters are only available in live mode.");
+        }
+        BreakpointManager manager = new BreakpointManager(state);
+        Optional<Breakpoint> bp = manager.restrictToInstance(fileName, lineNumber, variableName);
+        if (bp.isPresent()) {
+            return CommandResult.success("Breakpoint restricted to the object in " + variableName, bp.get());
+        }
+        return CommandResult.error("No breakpoint at " + fileName + ":" + lineNumber);
+    }
+}
@@ -0,0 +1,24 @@
+package commands;
+import models.DebuggerState;
+import query.QueryEngine;
+import query.QueryParser;
+import query.QueryResult;
+import query.TraceQuery;
+import java.util.List;
+class QueryCommand implements Command {
+    private final String queryText;
+    public QueryCommand(String queryText) {
+        this.queryText = queryText;
+    }
+    @Override
+    public CommandResult execute(DebuggerState state) throws Exception {
+        if (state.getExecutionHistory() == null || state.getExecutionHistory().isEmpty()) {
+            return CommandResult.error("No execution history available. Run in recording mode first.");
+        }
+        TraceQuery query = QueryParser.parse(queryText);
+        List<QueryResult> results = new QueryEngine(state.getExecutionHistory()).execute(query);
+        String message = results.size() + " result(s) for: " + query
+                + (results.isEmpty() ? "" : "\nUse 'goto <step>' to travel to a result.");
+        return CommandResult.success(message, results);
+    }
+}
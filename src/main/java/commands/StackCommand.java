@@ -5,7 +5,7 @@ import models.ExecutionSnapshot;
 class StackCommand implements Command {
     @Override
     public CommandResult execute(DebuggerState state) throws Exception {
-        if (state.isReplayMode() && state.getExecutionHistory() != null) {
+        if (state.isHistoryMode() && state.getExecutionHistory() != null) {
             ExecutionSnapshot snapshot = state.getExecutionHistory().getCurrentSnapshot();
             if (snapshot == null) {
                 return CommandResult.error("No current execution state");
@@ -0,0 +1,27 @@
+package commands;
+import managers.BreakpointManager;
+import models.Breakpoint;
+import models.DebuggerState;
+import java.util.Optional;
+class ThreadFilterCommand implements Command {
+    private final String fileName;
+    private final int lineNumber;
+    private final String threadName;
+    public ThreadFilterCommand(String fileName, int lineNumber, String threadName) {
+        this.fileName = fileName;
+        this.lineNumber = lineNumber;
+        this.threadName = threadName;
+    }
+    @Override
+    public CommandResult execute(DebuggerState state) throws Exception {
+        if (state.isHistoryMode()) {
+            return CommandResult.error("Thread filters are only available in live mode.");
+        }
+        BreakpointManager manager = new BreakpointManager(state);
+        Optional<Breakpoint> bp = manager.restrictToThread(fileName, lineNumber, threadName);
+        if (bp.isPresent()) {
+            return CommandResult.success("Breakpoint restricted to thread " + threadName, bp.get());
+        }
+        return CommandResult.error("No breakpoint at " + fileName + ":" + lineNumber);
+    }
+}
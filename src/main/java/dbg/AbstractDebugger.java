@@ -3,6 +3,8 @@ import com.sun.jdi.*;
 import com.sun.jdi.connect.*;
 import com.sun.jdi.event.*;
 import com.sun.jdi.request.*;
+import managers.BreakpointManager;
+import models.CapturePolicy;
 import models.DebuggerState;
 import java.io.*;
 import java.util.*;
@@ -10,15 +12,22 @@ public abstract class AbstractDebugger {
     protected Class<?> debugClass;
     protected VirtualMachine vm;
     protected DebuggerState state;
+    /** Partagé par tous les événements : une préparation de classe arrive pour chaque classe de la VM. */
+    private BreakpointManager breakpoints;
+    protected final CapturePolicy capturePolicy = new CapturePolicy();
     protected volatile boolean isRunning = true;
     protected volatile boolean shouldContinue = false;
     protected final Object lock = new Object();
+    private ClassPrepareRequest debugClassPrepareRequest;
     public void attachTo(Class<?> debuggeeClass) {
         this.debugClass = debuggeeClass;
         try {
             initializeUI();
             vm = connectAndLaunchVM();
-            state = new DebuggerState(vm);
+            state = new DebuggerState(vm, capturePolicy);
+            breakpoints = new BreakpointManager(state);
+            state.getSteppedClasses().add(stepClassFilter());
+            enableClassIndexing();
             onInfo("[START] Debugging " + debugClass.getSimpleName() + "...");
             captureTargetOutput();
             onBeforeStart();
@@ -28,6 +37,28 @@ public abstract class AbstractDebugger {
             onError("Connection error: " + e.getMessage());
         }
     }
+    /** Filtre de classe des requêtes de pas de l'enregistrement : seule la classe déboguée donne des pas. */
+    protected String stepClassFilter() {
+        return debugClass.getName();
+    }
+    /**
+     * Vrai si le pas en cours sur ce thread s'arrête aussi à {@code location}, entrée de
+     * méthode ou breakpoint d'une classe pas à pas : l'emplacement ne doit alors être
+     * enregistré qu'une fois, par le pas.
+     */
+    protected boolean stepStopsAt(ThreadReference thread, Location location) {
+        if (!state.getSteppedClasses().contains(location.declaringType().name())) {
+            return false;
+        }
+        for (StepRequest request : vm.eventRequestManager().stepRequests()) {
+            if (request.isEnabled() && request.thread().equals(thread)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    /** Règles de capture des variables, à ajuster avant {@link #attachTo}. */
+    public CapturePolicy getCapturePolicy() { return capturePolicy; }
     protected abstract void initializeUI();
     protected abstract void onBeforeStart();
     protected abstract void onInfo(String message);
@@ -51,13 +82,28 @@ public abstract class AbstractDebugger {
         ClassPrepareRequest r = vm.eventRequestManager().createClassPrepareRequest();
         r.addClassFilter(debugClass.getName());
         r.enable();
+        debugClassPrepareRequest = r;
+    }
+    /**
+     * Maintient l'index fichier source -> classes : toutes les préparations de classes
+     * sont notifiées sans suspendre la VM, et les classes déjà chargées sont indexées une fois.
+     */
+    protected void enableClassIndexing() {
+        ClassPrepareRequest r = vm.eventRequestManager().createClassPrepareRequest();
+        r.setSuspendPolicy(EventRequest.SUSPEND_NONE);
+        r.enable();
+        state.getClassIndex().addAll(vm.allClasses());
     }
     protected void captureTargetOutput() {
         Process process = vm.process();
         if (process == null) return;
+        captureStream(process.getInputStream(), "Output-Capture-Thread");
+        captureStream(process.getErrorStream(), "Error-Capture-Thread");
+    }
+    private void captureStream(InputStream stream, String threadName) {
         Thread outputThread = new Thread(() -> {
             try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(process.getInputStream()))) {
+                    new InputStreamReader(stream))) {
                 String line;
                 while (isRunning && (line = reader.readLine()) != null) {
                     onOutput(line + "\n");
@@ -67,7 +113,7 @@ public abstract class AbstractDebugger {
                     onError("Output read error: " + e.getMessage());
                 }
             }
-        }, "Output-Capture-Thread");
+        }, threadName);
         outputThread.setDaemon(true);
         outputThread.start();
     }
@@ -81,22 +127,28 @@ public abstract class AbstractDebugger {
                     shouldResume = false;
                 }
             }
-            if (shouldResume && isRunning) {
+            if (shouldResume && isRunning && eventSet.suspendPolicy() != EventRequest.SUSPEND_NONE) {
                 vm.resume();
             }
         }
     }
     protected boolean handleEvent(Event event) throws Exception {
         if (event instanceof VMDisconnectEvent) {
+            state.getValueCache().clear();
             onVMDisconnect();
             isRunning = false;
             return false;
         } else if (event instanceof ClassPrepareEvent) {
             ClassPrepareEvent cpe = (ClassPrepareEvent) event;
-            onClassPrepare(cpe.referenceType());
+            state.getClassIndex().add(cpe.referenceType());
+            breakpoints.resolvePending(cpe.referenceType());
+            if (cpe.request() == debugClassPrepareRequest) {
+                onClassPrepare(cpe.referenceType());
+            }
             return false;
         } else if (event instanceof BreakpointEvent) {
             BreakpointEvent be = (BreakpointEvent) event;
+            breakpoints.recordLiveHit((BreakpointRequest) be.request());
             return onBreakpoint(be.location(), be.thread());
         } else if (event instanceof StepEvent) {
             StepEvent se = (StepEvent) event;
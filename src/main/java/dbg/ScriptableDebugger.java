@@ -95,7 +95,7 @@ public class ScriptableDebugger extends AbstractDebugger {
     }
     @Override
     protected boolean onMethodEntry(Location loc, ThreadReference thread) throws Exception {
-        if (state.isRecordingMode()) {
+        if (state.isRecordingMode() && !stepStopsAt(thread, loc)) {
             managers.SnapshotRecorder recorder = new managers.SnapshotRecorder(state);
             recorder.recordSnapshot(thread);
             if (recorder.shouldLogProgress()) {
@@ -114,7 +114,7 @@ public class ScriptableDebugger extends AbstractDebugger {
                 StepRequest.STEP_LINE,
                 StepRequest.STEP_INTO
             );
-            stepRequest.addClassFilter(debugClass.getName());
+            stepRequest.addClassFilter(stepClassFilter());
             stepRequest.setSuspendPolicy(EventRequest.SUSPEND_EVENT_THREAD);
             stepRequest.enable();
         } catch (Exception e) {
@@ -159,7 +159,7 @@ public class ScriptableDebugger extends AbstractDebugger {
     }
     private void replayMode() {
         presenter.info("\n=== REPLAY MODE ===");
-        presenter.info("Commands: step, step-over, continue, back, forward, history, stack, frame, quit");
+        presenter.info("Commands: step, step-over, continue, back, forward, history, goto, query, stack, frame, quit");
         while (true) {
             String input = inputReader.readLine("\ndbg> ");
             if (input == null || input.isEmpty()) {
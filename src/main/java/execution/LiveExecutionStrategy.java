@@ -6,7 +6,7 @@ import models.DebuggerState;
 public class LiveExecutionStrategy implements ExecutionStrategy {
     @Override
     public boolean isApplicable(DebuggerState state) {
-        return !state.isReplayMode();
+        return !state.isHistoryMode();
     }
     @Override
     public CommandResult step(DebuggerState state) throws Exception {
@@ -4,18 +4,22 @@ import models.Breakpoint;
 import models.DebuggerState;
 import models.ExecutionHistory;
 import models.ExecutionSnapshot;
+import models.TraceIndex;
+import query.SnapshotEvaluationContext;
+import java.util.Arrays;
+import java.util.List;
 public class ReplayExecutionStrategy implements ExecutionStrategy {
     @Override
     public boolean isApplicable(DebuggerState state) {
-        return state.isReplayMode() && state.getExecutionHistory() != null;
+        return state.isHistoryMode() && state.getExecutionHistory() != null;
     }
     @Override
     public CommandResult step(DebuggerState state) throws Exception {
         ExecutionHistory history = state.getExecutionHistory();
-        if (!history.hasNext()) {
-            return CommandResult.error("Already at the end of execution history.");
+        if (!history.forward()) {
+            return CommandResult.error(state.isBrowsingWhileRecording()
+                ? "No further step recorded yet." : "Already at the end of execution history.");
         }
-        history.forward();
         ExecutionSnapshot snapshot = history.getCurrentSnapshot();
         return new CommandResult(true, snapshot.toDetailedString(), snapshot);
     }
@@ -26,11 +30,10 @@ public class ReplayExecutionStrategy implements ExecutionStrategy {
         if (current == null) {
             return CommandResult.error("No current execution state.");
         }
-        int currentDepth = current.getStackFrames().size();
-        while (history.hasNext()) {
-            history.forward();
+        int currentDepth = current.getStackDepth();
+        while (history.forward()) {
             ExecutionSnapshot next = history.getCurrentSnapshot();
-            if (next.getStackFrames().size() <= currentDepth) {
+            if (next.getStackDepth() <= currentDepth) {
                 return new CommandResult(true, next.toDetailedString(), next);
             }
         }
@@ -47,11 +50,10 @@ public class ReplayExecutionStrategy implements ExecutionStrategy {
         if (!history.hasPrevious()) {
             return CommandResult.error("Already at the beginning of execution history.");
         }
-        int currentDepth = current.getStackFrames().size();
-        while (history.hasPrevious()) {
-            history.back();
+        int currentDepth = current.getStackDepth();
+        while (history.back()) {
             ExecutionSnapshot prev = history.getCurrentSnapshot();
-            if (prev.getStackFrames().size() <= currentDepth) {
+            if (prev.getStackDepth() <= currentDepth) {
                 return new CommandResult(true, prev.toDetailedString(), prev);
             }
         }
@@ -66,23 +68,48 @@ public class ReplayExecutionStrategy implements ExecutionStrategy {
         if (current == null) {
             return CommandResult.error("No current execution state.");
         }
-        while (history.hasNext()) {
-            history.forward();
-            ExecutionSnapshot next = history.getCurrentSnapshot();
+        List<ExecutionSnapshot> snapshots = history.getAllSnapshots();
+        for (int step : breakpointSteps(state, history, snapshots)) {
+            ExecutionSnapshot next = snapshots.get(step);
             Breakpoint bp = findMatchingBreakpoint(state, next);
-            if (bp != null) {
-                bp.incrementHitCount();
-                if (bp.shouldStop()) {
-                    String key = next.getSourceFile() + ":" + next.getLineNumber();
-                    return new CommandResult(true,
-                        "Hit breakpoint at " + key + "\n" + next.toDetailedString(), next);
-                }
+            if (bp == null || !bp.matchesCondition(new SnapshotEvaluationContext(snapshots, step))) {
+                continue;
+            }
+            bp.incrementHitCount();
+            if (bp.shouldStop()) {
+                history.goToStep(step);
+                String key = next.getSourceFile() + ":" + next.getLineNumber();
+                return new CommandResult(true,
+                    "Hit breakpoint at " + key + "\n" + next.toDetailedString(), next);
             }
         }
+        history.goToEnd();
         ExecutionSnapshot last = history.getCurrentSnapshot();
         return new CommandResult(true,
             "Reached end of execution (no breakpoint hit)\n" + last.toDetailedString(), last);
     }
+    /**
+     * Pas situés après la position courante sur une ligne portant un breakpoint,
+     * dans l'ordre d'exécution ; seuls ces pas sont examinés par continue. Ils sont
+     * tous dans {@code snapshots}, même si l'enregistrement a avancé depuis.
+     */
+    private int[] breakpointSteps(DebuggerState state, ExecutionHistory history, List<ExecutionSnapshot> snapshots) {
+        TraceIndex index = history.getTraceIndex(snapshots);
+        int from = history.getCurrentIndex();
+        int[] merged = new int[0];
+        for (Breakpoint bp : state.getBreakpoints().values()) {
+            int[] steps = TraceIndex.before(index.getStepsAtLine(bp.getFileName(), bp.getLineNumber()), snapshots.size());
+            int start = Arrays.binarySearch(steps, from + 1);
+            if (start < 0) {
+                start = -start - 1;
+            }
+            int[] next = Arrays.copyOf(merged, merged.length + steps.length - start);
+            System.arraycopy(steps, start, next, merged.length, steps.length - start);
+            merged = next;
+        }
+        Arrays.sort(merged);
+        return merged;
+    }
     private Breakpoint findMatchingBreakpoint(DebuggerState state, ExecutionSnapshot snapshot) {
         String sourceFile = snapshot.getSourceFile();
         int lineNum = snapshot.getLineNumber();
@@ -4,21 +4,25 @@ import com.sun.jdi.ThreadReference;
 import gui.components.CallStackPanel;
 import gui.components.MethodCallsPanel;
 import gui.components.OutputPanel;
+import gui.components.QueryPanel;
 import gui.components.SourceCodePanel;
 import gui.components.ToolbarPanel;
 import gui.components.VariableHistoryPanel;
 import gui.components.VariablesPanel;
 import gui.theme.Theme;
 import gui.theme.ThemeManager;
+import io.SourceRepository;
 import models.DebugFrame;
 import models.DebuggerState;
+import models.ExecutionHistory;
 import models.ExecutionSnapshot;
+import models.OutputLog;
 import javax.swing.*;
 import java.awt.*;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 public class DebuggerGUI extends JFrame {
     private final ToolbarPanel toolbar;
     private final SourceCodePanel sourceCodePanel;
@@ -28,10 +32,13 @@ public class DebuggerGUI extends JFrame {
     private final OutputPanel debugLogPanel;
     private final VariableHistoryPanel variableHistoryPanel;
     private final MethodCallsPanel methodCallsPanel;
+    private final QueryPanel queryPanel;
     private DebuggerState state;
     private String currentSourceFile = "";
+    private SourceRepository.SourceFile displayedSource;
+    private String missingSource;
     private DebuggerController controller;
-    private List<ExecutionSnapshot> executionSnapshots = new ArrayList<>();
+    private ExecutionHistory executionHistory;
     private List<DebugFrame> currentFrames = new ArrayList<>();
     private ExecutionSnapshot currentSnapshot;
     private final Theme theme;
@@ -55,6 +62,7 @@ public class DebuggerGUI extends JFrame {
         this.debugLogPanel = new OutputPanel("Debugger Log");
         this.variableHistoryPanel = new VariableHistoryPanel();
         this.methodCallsPanel = new MethodCallsPanel();
+        this.queryPanel = new QueryPanel();
         initFrame();
         initLayout();
         initListeners();
@@ -89,6 +97,9 @@ public class DebuggerGUI extends JFrame {
         methodCallsPanel.setPreferredSize(new Dimension(350, 0));
         methodCallsPanel.setVisible(false);
         sourceWithMethodCalls.add(methodCallsPanel, BorderLayout.WEST);
+        queryPanel.setPreferredSize(new Dimension(0, 220));
+        queryPanel.setVisible(false);
+        sourceWithMethodCalls.add(queryPanel, BorderLayout.SOUTH);
         JSplitPane rightSplit = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
                 callStackPanel, variablesWithHistory);
         rightSplit.setDividerLocation(250);
@@ -146,6 +157,12 @@ public class DebuggerGUI extends JFrame {
             public void onShowMethodCalls() {
                 showMethodCallsPanel();
             }
+            @Override
+            public void onShowQuery() {
+                queryPanel.setVisible(!queryPanel.isVisible());
+                revalidate();
+                repaint();
+            }
         });
         sourceCodePanel.setBreakpointListener(line -> {
             if (controller != null && !currentSourceFile.isEmpty()) {
@@ -179,6 +196,18 @@ public class DebuggerGUI extends JFrame {
                 repaint();
             }
         });
+        queryPanel.setListener(new QueryPanel.QueryPanelListener() {
+            @Override
+            public void onResultSelected(int stepNumber) {
+                navigateToStep(stepNumber);
+            }
+            @Override
+            public void onClose() {
+                queryPanel.setVisible(false);
+                revalidate();
+                repaint();
+            }
+        });
     }
     private void executeControllerAction(ControllerAction action) {
         if (controller != null) {
@@ -203,8 +232,7 @@ public class DebuggerGUI extends JFrame {
                     int lineNumber = selectedFrame.getLineNumber();
                     if (sourceFile != null) {
                         currentSourceFile = sourceFile;
-                        loadSourceFromFrame(selectedFrame);
-                        sourceCodePanel.setCurrentLine(lineNumber);
+                        showSource(currentSnapshot.getStackFrames().get(index).getClassName(), sourceFile, lineNumber);
                     }
                 }
                 return;
@@ -218,42 +246,12 @@ public class DebuggerGUI extends JFrame {
                 if (loc != null) {
                     currentSourceFile = loc.sourceName();
                     loadSource(loc);
-                    sourceCodePanel.setCurrentLine(loc.lineNumber());
                 }
             }
         } catch (Exception e) {
             appendDebugLog("Error navigating stack: " + e.getMessage() + "\n");
         }
     }
-    private void loadSourceFromFrame(DebugFrame frame) {
-        String sourceName = frame.getSourceFile();
-        String displayName = frame.getDisplayName();
-        String packagePath = "";
-        if (displayName != null && displayName.contains(".")) {
-            String className = displayName.substring(0, displayName.lastIndexOf('.'));
-            if (className.contains(".")) {
-                packagePath = className.substring(0, className.lastIndexOf('.')).replace('.', '/') + "/";
-            }
-        }
-        String[] possiblePaths = {
-                "src/main/java/" + packagePath + sourceName,
-                "src/main/java/dbg/" + sourceName,
-                "src/main/java/" + sourceName,
-                "src/" + packagePath + sourceName,
-                sourceName
-        };
-        for (String path : possiblePaths) {
-            if (Files.exists(Paths.get(path))) {
-                try {
-                    List<String> lines = Files.readAllLines(Paths.get(path));
-                    sourceCodePanel.setSourceLines(lines);
-                    return;
-                } catch (Exception e) {
-                    appendDebugLog("[WARN] Error loading source: " + e.getMessage() + "\n");
-                }
-            }
-        }
-    }
     public void setController(DebuggerController controller) {
         this.controller = controller;
     }
@@ -279,33 +277,34 @@ public class DebuggerGUI extends JFrame {
         }
     }
     private void loadSource(Location loc) throws Exception {
-        String sourceName = loc.sourceName();
-        String className = loc.declaringType().name();
-        String packagePath = className.contains(".")
-                ? className.substring(0, className.lastIndexOf('.')).replace('.', '/') + "/"
-                : "";
-        String[] possiblePaths = {
-                "src/main/java/" + packagePath + sourceName,
-                "src/main/java/dbg/" + sourceName,
-                "src/main/java/" + sourceName,
-                "src/" + packagePath + sourceName,
-                sourceName
-        };
-        for (String path : possiblePaths) {
-            if (Files.exists(Paths.get(path))) {
-                List<String> lines = Files.readAllLines(Paths.get(path));
-                sourceCodePanel.setSourceLines(lines);
-                sourceCodePanel.setCurrentLine(loc.lineNumber());
-                appendDebugLog("[LOADED] Source: " + path + "\n");
-                return;
+        showSource(loc.declaringType().name(), loc.sourceName(), loc.lineNumber());
+    }
+    /** Ne recharge le panneau que si le fichier change : la navigation ne relit pas le disque. */
+    private void showSource(String className, String sourceName, int lineNumber) {
+        Optional<SourceRepository.SourceFile> source = SourceRepository.getInstance().find(className, sourceName);
+        if (source.isEmpty()) {
+            if (displayedSource != null || !sourceName.equals(missingSource)) {
+                appendDebugLog("[WARN] Source file not found: " + sourceName + "\n");
             }
+            displayedSource = null;
+            missingSource = sourceName;
+            return;
+        }
+        if (source.get() != displayedSource) {
+            displayedSource = source.get();
+            sourceCodePanel.setSourceLines(displayedSource.getLines());
+            appendDebugLog("[LOADED] Source: " + displayedSource.getPath() + "\n");
         }
-        appendDebugLog("[WARN] Source file not found: " + sourceName + " (tried " + possiblePaths.length + " paths)\n");
+        sourceCodePanel.setCurrentLine(lineNumber);
     }
     public void appendOutput(String text) {
         outputPanel.appendOutput(text);
     }
 
+    public void showOutputUpTo(OutputLog log, int end) {
+        outputPanel.showLogUpTo(log, end);
+    }
+
     public void appendDebugLog(String text) {
         debugLogPanel.appendOutput(text);
     }
@@ -353,30 +352,7 @@ public class DebuggerGUI extends JFrame {
         loadSourceFromSnapshot(snapshot, snapshot.getLineNumber());
     }
     private void loadSourceFromSnapshot(ExecutionSnapshot snapshot, int lineNumber) {
-        String sourceName = snapshot.getSourceFile();
-        String className = snapshot.getClassName();
-        String packagePath = className.contains(".")
-                ? className.substring(0, className.lastIndexOf('.')).replace('.', '/') + "/"
-                : "";
-        String[] possiblePaths = {
-                "src/main/java/" + packagePath + sourceName,
-                "src/main/java/dbg/" + sourceName,
-                "src/main/java/" + sourceName,
-                "src/" + packagePath + sourceName,
-                sourceName
-        };
-        for (String path : possiblePaths) {
-            if (Files.exists(Paths.get(path))) {
-                try {
-                    List<String> lines = Files.readAllLines(Paths.get(path));
-                    sourceCodePanel.setSourceLines(lines);
-                    SwingUtilities.invokeLater(() -> sourceCodePanel.setCurrentLine(lineNumber));
-                    return;
-                } catch (Exception e) {
-                    appendDebugLog("[WARN] Error loading source: " + e.getMessage() + "\n");
-                }
-            }
-        }
+        showSource(snapshot.getClassName(), snapshot.getSourceFile(), lineNumber);
     }
     private List<DebugFrame> convertStackFrames(List<ExecutionSnapshot.StackFrameSnapshot> stackFrames) {
         List<DebugFrame> frames = new ArrayList<>();
@@ -390,23 +366,33 @@ public class DebuggerGUI extends JFrame {
         }
         return frames;
     }
-    public void setExecutionSnapshots(List<ExecutionSnapshot> snapshots) {
-        this.executionSnapshots = snapshots != null ? snapshots : new ArrayList<>();
+    /**
+     * Pendant l'enregistrement, chaque panneau ouvert reçoit une vue figée des pas déjà
+     * publiés par l'historique.
+     */
+    public void setExecutionHistory(ExecutionHistory history) {
+        this.executionHistory = history;
+        queryPanel.setExecutionHistory(history);
+    }
+    private List<ExecutionSnapshot> snapshots() {
+        return executionHistory != null ? executionHistory.getAllSnapshots() : Collections.emptyList();
     }
     private void showVariableHistory(String variableId, String variableName) {
-        if (executionSnapshots.isEmpty()) {
+        List<ExecutionSnapshot> snapshots = snapshots();
+        if (snapshots.isEmpty()) {
             appendDebugLog("[INFO] No execution history available. Run with recording enabled.\n");
             return;
         }
-        variableHistoryPanel.showVariableHistory(variableId, variableName, executionSnapshots);
+        variableHistoryPanel.showVariableHistory(variableId, variableName, snapshots);
         variableHistoryPanel.setVisible(true);
         revalidate();
         repaint();
         appendDebugLog("[HISTORY] Showing history for variable: " + variableName + "\n");
     }
     private void navigateToStep(int stepNumber) {
-        for (int i = 0; i < executionSnapshots.size(); i++) {
-            ExecutionSnapshot snapshot = executionSnapshots.get(i);
+        List<ExecutionSnapshot> snapshots = snapshots();
+        for (int i = 0; i < snapshots.size(); i++) {
+            ExecutionSnapshot snapshot = snapshots.get(i);
             if (snapshot.getStepNumber() == stepNumber) {
                 updateFromSnapshot(snapshot);
                 if (controller != null) {
@@ -425,23 +411,25 @@ public class DebuggerGUI extends JFrame {
         return variablesPanel;
     }
     private void showMethodCallsPanel() {
-        if (executionSnapshots.isEmpty()) {
+        List<ExecutionSnapshot> snapshots = snapshots();
+        if (snapshots.isEmpty()) {
             appendDebugLog("[INFO] No execution history available. Run with recording enabled.\n");
             return;
         }
-        methodCallsPanel.updateMethodCalls(executionSnapshots);
+        methodCallsPanel.updateMethodCalls(snapshots);
         methodCallsPanel.setTitle("METHOD CALLS");
         methodCallsPanel.setVisible(true);
         revalidate();
         repaint();
-        appendDebugLog("[METHOD CALLS] Showing " + executionSnapshots.size() + " recorded method calls\n");
+        appendDebugLog("[METHOD CALLS] Showing " + snapshots.size() + " recorded method calls\n");
     }
     private void showMethodCallsForMethod(String className, String methodName) {
-        if (executionSnapshots.isEmpty()) {
+        List<ExecutionSnapshot> snapshots = snapshots();
+        if (snapshots.isEmpty()) {
             appendDebugLog("[INFO] No execution history available. Run with recording enabled.\n");
             return;
         }
-        methodCallsPanel.updateMethodCalls(executionSnapshots);
+        methodCallsPanel.updateMethodCalls(snapshots);
         methodCallsPanel.filterByClassAndMethod(className, methodName);
         String shortClassName = className.contains(".") ?
                 className.substring(className.lastIndexOf('.') + 1) : className;
@@ -454,4 +442,7 @@ public class DebuggerGUI extends JFrame {
     public MethodCallsPanel getMethodCallsPanel() {
         return methodCallsPanel;
     }
+    public QueryPanel getQueryPanel() {
+        return queryPanel;
+    }
 }
@@ -14,7 +14,8 @@ public class ScriptableDebuggerGUI extends AbstractDebugger
     private DebuggerGUI gui;
     private Logger log;
     private volatile boolean guiReady = false;
-    private boolean recordingPhase = true;
+    private volatile boolean recordingPhase = true;
+    private volatile boolean browsedWhileRecording;
     private final int initialBreakpointLine;
 
     public ScriptableDebuggerGUI() {
@@ -45,11 +46,17 @@ public class ScriptableDebuggerGUI extends AbstractDebugger
     @Override
     protected void onBeforeStart() {
         state.setRecordingMode(true);
+        // L'historique se parcourt déjà pendant l'enregistrement : les commandes de navigation
+        // lisent les pas publiés pendant que l'enregistreur en ajoute
+        state.setBrowsingWhileRecording(true);
         recordingPhase = true;
         if (log != null) {
-            log.info("📝 Recording execution... Please wait.");
+            log.info("📝 Recording execution... You can browse recorded steps meanwhile.");
         }
-        SwingUtilities.invokeLater(() -> gui.setControlsEnabled(false));
+        SwingUtilities.invokeLater(() -> {
+            gui.setExecutionHistory(state.getExecutionHistory());
+            gui.setControlsEnabled(true);
+        });
     }
     @Override
     protected void onInfo(String message) {
@@ -69,7 +76,7 @@ public class ScriptableDebuggerGUI extends AbstractDebugger
             state.appendOutput(output);
         }
         if (gui != null) {
-            SwingUtilities.invokeLater(() -> gui.appendOutput(output));
+            gui.appendOutput(output);
         }
     }
     @Override
@@ -81,23 +88,32 @@ public class ScriptableDebuggerGUI extends AbstractDebugger
         }
         recordingPhase = false;
         state.setRecordingMode(false);
+        // Le replay prend le relais avant la fin de la navigation : les commandes ne doivent
+        // jamais voir ni l'un ni l'autre et repartir vers la VM
         state.setReplayMode(true);
-        state.getExecutionHistory().goToStart();
-        List<ExecutionSnapshot> snapshots = state.getExecutionHistory().getAllSnapshots();
+        state.setBrowsingWhileRecording(false);
+        if (!browsedWhileRecording) {
+            state.getExecutionHistory().goToStart();
+        }
+        ExecutionSnapshot current = state.getExecutionHistory().getCurrentSnapshot();
         SwingUtilities.invokeLater(() -> {
-            gui.clearOutput();
-            gui.setExecutionSnapshots(snapshots);
+            gui.setExecutionHistory(state.getExecutionHistory());
             gui.setControlsEnabled(true);
-            if (!snapshots.isEmpty()) {
-                gui.updateFromSnapshot(snapshots.get(0));
+            if (current != null) {
+                gui.showOutputUpTo(current.getOutputLog(), current.getOutputEnd());
+                gui.updateFromSnapshot(current);
+            } else {
+                gui.clearOutput();
             }
         });
     }
     @Override
     protected boolean onBreakpoint(Location loc, ThreadReference thread) throws Exception {
         if (recordingPhase) {
-            recordSnapshot(thread);
-            createStepRequest(thread);
+            if (!stepStopsAt(thread, loc)) {
+                recordSnapshot(thread);
+                createStepRequest(thread);
+            }
             return false;
         } else {
             if (log != null) {
@@ -129,7 +145,7 @@ public class ScriptableDebuggerGUI extends AbstractDebugger
                 StepRequest.STEP_LINE,
                 StepRequest.STEP_INTO
             );
-            stepRequest.addClassFilter(debugClass.getName());
+            stepRequest.addClassFilter(stepClassFilter());
             stepRequest.setSuspendPolicy(EventRequest.SUSPEND_EVENT_THREAD);
             stepRequest.enable();
         } catch (Exception e) {
@@ -148,55 +164,38 @@ public class ScriptableDebuggerGUI extends AbstractDebugger
         if (log != null) {
             log.debug("Class loaded: %s", refType.name());
         }
-        setInitialBreakpoint();
+        setInitialBreakpoint(refType);
     }
-    private void setInitialBreakpoint() {
+    private void setInitialBreakpoint(ReferenceType type) {
         if (log != null) {
-            log.debug("Looking for class: %s", debugClass.getName());
-            log.debug("All classes count: %d", vm.allClasses().size());
+            log.debug("Found class: %s", type.name());
         }
-        for (ReferenceType type : vm.allClasses()) {
-            if (type.name().equals(debugClass.getName())) {
-                if (log != null) {
-                    log.debug("Found class: %s", type.name());
-                }
-                try {
-                    if (initialBreakpointLine == -1) {
-                        Location mainLocation = findMainMethodFirstLine(type);
-                        if (mainLocation != null) {
-                            vm.eventRequestManager().createBreakpointRequest(mainLocation).enable();
-                            if (log != null) {
-                                log.info("Breakpoint set at first line of main: %d", mainLocation.lineNumber());
-                            }
-                            return;
-                        } else {
-                            if (log != null) {
-                                log.warn("Could not find main method or its first executable line");
-                            }
-                        }
-                    } else {
-                        List<Location> locs = type.locationsOfLine(initialBreakpointLine);
-                        if (!locs.isEmpty()) {
-                            vm.eventRequestManager().createBreakpointRequest(locs.get(0)).enable();
-                            if (log != null) {
-                                log.info("Breakpoint set at line %d", initialBreakpointLine);
-                            }
-                            return;
-                        } else {
-                            if (log != null) {
-                                log.warn("No executable code found at line %d", initialBreakpointLine);
-                            }
-                        }
+        try {
+            if (initialBreakpointLine == -1) {
+                Location mainLocation = findMainMethodFirstLine(type);
+                if (mainLocation != null) {
+                    vm.eventRequestManager().createBreakpointRequest(mainLocation).enable();
+                    if (log != null) {
+                        log.info("Breakpoint set at first line of main: %d", mainLocation.lineNumber());
                     }
-                } catch (Exception e) {
+                } else if (log != null) {
+                    log.warn("Could not find main method or its first executable line");
+                }
+            } else {
+                List<Location> locs = type.locationsOfLine(initialBreakpointLine);
+                if (!locs.isEmpty()) {
+                    vm.eventRequestManager().createBreakpointRequest(locs.get(0)).enable();
                     if (log != null) {
-                        log.error("Error setting breakpoint", e);
+                        log.info("Breakpoint set at line %d", initialBreakpointLine);
                     }
+                } else if (log != null) {
+                    log.warn("No executable code found at line %d", initialBreakpointLine);
                 }
             }
-        }
-        if (log != null) {
-            log.warn("Class not found in VM classes");
+        } catch (Exception e) {
+            if (log != null) {
+                log.error("Error setting breakpoint", e);
+            }
         }
     }
 
@@ -252,10 +251,15 @@ public class ScriptableDebuggerGUI extends AbstractDebugger
         handleCommandResult(result);
     }
     private void handleCommandResult(CommandResult result) {
-        if (state.isReplayMode()) {
+        if (state.isHistoryMode()) {
             if (result.hasSnapshot()) {
                 ExecutionSnapshot snapshot = result.getSnapshot();
-                rebuildConsoleUpToStep(snapshot.getStepNumber());
+                if (state.isBrowsingWhileRecording()) {
+                    // La console continue d'afficher la sortie en direct jusqu'à la fin
+                    browsedWhileRecording = true;
+                } else {
+                    gui.showOutputUpTo(snapshot.getOutputLog(), snapshot.getOutputEnd());
+                }
                 gui.updateFromSnapshot(snapshot);
                 if (log != null) {
                     log.debug("Step #%d: %s:%d",
@@ -270,15 +274,6 @@ public class ScriptableDebuggerGUI extends AbstractDebugger
         }
     }
 
-    private void rebuildConsoleUpToStep(int targetStep) {
-        gui.clearOutput();
-        List<ExecutionSnapshot> snapshots = state.getExecutionHistory().getAllSnapshots();
-        for (ExecutionSnapshot snap : snapshots) {
-            if (snap.getStepNumber() <= targetStep && snap.getOutputText() != null && !snap.getOutputText().isEmpty()) {
-                gui.appendOutput(snap.getOutputText());
-            }
-        }
-    }
     @Override
     public void onStop() {
         stop();
@@ -302,6 +297,9 @@ public class ScriptableDebuggerGUI extends AbstractDebugger
     }
     @Override
     public void onNavigateToStep(int snapshotIndex) {
+        if (state.isBrowsingWhileRecording()) {
+            browsedWhileRecording = true;
+        }
         state.getExecutionHistory().goToStep(snapshotIndex);
         if (log != null) {
             log.debug("⏱ Time travel: now at step #%d", snapshotIndex);
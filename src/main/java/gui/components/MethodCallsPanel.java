@@ -1,7 +1,9 @@
 package gui.components;
 import gui.theme.Theme;
 import gui.theme.ThemeManager;
+import models.CallSite;
 import models.ExecutionSnapshot;
+import models.StackNode;
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
 import java.awt.*;
@@ -17,7 +19,11 @@ public class MethodCallsPanel extends JPanel {
     private final Theme theme;
     private final JButton closeButton;
     private MethodCallsListener listener;
+    private final ScanProgressBar progressBar;
     private List<MethodCallEntry> allCalls = new ArrayList<>();
+    private CallScan scan;
+    private String filterClassName;
+    private String filterMethodName;
     public interface MethodCallsListener {
         void onMethodCallSelected(int stepNumber);
         void onClose();
@@ -47,7 +53,9 @@ public class MethodCallsPanel extends JPanel {
         JScrollPane scrollPane = new JScrollPane(callsList);
         scrollPane.setBorder(null);
         add(headerPanel, BorderLayout.NORTH);
+        progressBar = new ScanProgressBar();
         add(scrollPane, BorderLayout.CENTER);
+        add(progressBar, BorderLayout.SOUTH);
         applyTitledBorder("METHOD CALLS");
     }
     private JList<MethodCallEntry> createList() {
@@ -88,127 +96,136 @@ public class MethodCallsPanel extends JPanel {
     }
     public void updateMethodCalls(List<ExecutionSnapshot> snapshots) {
         SwingUtilities.invokeLater(() -> {
+            if (scan != null) {
+                scan.cancel(false);
+                scan = null;
+            }
             callsModel.clear();
             allCalls.clear();
+            filterClassName = null;
+            filterMethodName = null;
             if (snapshots == null || snapshots.isEmpty()) {
+                progressBar.finish();
                 return;
             }
-            Set<String> seenCalls = new HashSet<>();
-            for (int i = 0; i < snapshots.size(); i++) {
+            CallScan newScan = new CallScan(snapshots);
+            scan = newScan;
+            progressBar.start(() -> newScan.cancel(false));
+            newScan.execute();
+        });
+    }
+    /**
+     * Parcourt l'historique en arrière-plan et publie les appels au fur et à mesure ;
+     * un nouveau parcours annule le précédent.
+     */
+    private class CallScan extends SwingWorker<Void, MethodCallEntry> {
+        private final List<ExecutionSnapshot> snapshots;
+        private final Set<String> seenCalls = new HashSet<>();
+        private volatile int scanned;
+        CallScan(List<ExecutionSnapshot> snapshots) {
+            this.snapshots = snapshots;
+            addPropertyChangeListener(e -> {
+                if ("progress".equals(e.getPropertyName()) && scan == this) {
+                    progressBar.setProgress(scanned, snapshots.size());
+                }
+            });
+        }
+        @Override
+        protected Void doInBackground() {
+            int total = snapshots.size();
+            for (int i = 0; i < total && !isCancelled(); i++) {
                 ExecutionSnapshot snapshot = snapshots.get(i);
-                List<ExecutionSnapshot.StackFrameSnapshot> frames = snapshot.getStackFrames();
-                if (frames.isEmpty()) continue;
-                if (frames.size() >= 2) {
-                    ExecutionSnapshot.StackFrameSnapshot callee = frames.get(0);
-                    ExecutionSnapshot.StackFrameSnapshot caller = frames.get(1);
+                StackNode callee = snapshot.getStack();
+                if (callee != null && callee.getParent() != null) {
+                    StackNode caller = callee.getParent();
                     String uniqueKey = caller.getClassName() + "." + caller.getMethodName()
                             + "@" + caller.getLineNumber()
                             + "->" + callee.getClassName() + "." + callee.getMethodName();
-                    if (!seenCalls.contains(uniqueKey)) {
-                        seenCalls.add(uniqueKey);
-                        MethodCallEntry entry = new MethodCallEntry(
+                    if (seenCalls.add(uniqueKey)) {
+                        publish(new MethodCallEntry(
                                 snapshot.getStepNumber(),
                                 callee.getClassName(),
                                 callee.getMethodName(),
                                 caller.getSourceFile(),
-                                caller.getLineNumber()  
-                        );
-                        allCalls.add(entry);
-                        callsModel.addElement(entry);
+                                caller.getLineNumber()
+                        ));
                     }
                 }
-                if (i > 0) {
-                    ExecutionSnapshot prevSnapshot = snapshots.get(i - 1);
-                    detectStepOverCalls(prevSnapshot, snapshot, seenCalls);
+                if (i > 0 && callee != null) {
+                    detectStepOverCalls(snapshots.get(i - 1), snapshot);
                 }
+                scanned = i + 1;
+                setProgress((int) (100L * scanned / total));
             }
-        });
-    }
-    private void detectStepOverCalls(ExecutionSnapshot prev, ExecutionSnapshot current, Set<String> seenCalls) {
-        if (!prev.getClassName().equals(current.getClassName()) ||
-            !prev.getMethodName().equals(current.getMethodName())) {
-            return; 
+            return null;
         }
-        int prevLine = prev.getLineNumber();
-        int currLine = current.getLineNumber();
-        if (currLine > prevLine || currLine < prevLine) {
-            String sourceCode = getSourceLine(prev.getSourceFile(), prev.getClassName(), prevLine);
-            if (sourceCode != null) {
-                List<String> methodCalls = extractMethodCalls(sourceCode);
-                for (String methodCall : methodCalls) {
-                    String uniqueKey = prev.getClassName() + "." + prev.getMethodName()
-                            + "@" + prevLine + "->EXTERNAL." + methodCall;
-                    if (!seenCalls.contains(uniqueKey)) {
-                        seenCalls.add(uniqueKey);
-                        MethodCallEntry entry = new MethodCallEntry(
-                                prev.getStepNumber(),
-                                "(external)",
-                                methodCall,
-                                prev.getSourceFile(),
-                                prevLine,
-                                true  
-                        );
-                        allCalls.add(entry);
-                        callsModel.addElement(entry);
-                    }
+        private void detectStepOverCalls(ExecutionSnapshot prev, ExecutionSnapshot current) {
+            if (!prev.getClassName().equals(current.getClassName()) ||
+                !prev.getMethodName().equals(current.getMethodName())) {
+                return;
+            }
+            int prevLine = prev.getLineNumber();
+            if (current.getLineNumber() == prevLine) {
+                return;
+            }
+            String caller = prev.getClassName() + "." + prev.getMethodName() + "@" + prevLine;
+            for (CallSite site : prev.getCallSites()) {
+                String callee = site.getClassName() + "." + site.getMethodName();
+                if (seenCalls.contains(caller + "->" + callee)) {
+                    continue;
+                }
+                if (seenCalls.add(caller + "->EXTERNAL." + callee)) {
+                    publish(new MethodCallEntry(
+                            prev.getStepNumber(),
+                            site.getClassName(),
+                            site.getMethodName(),
+                            prev.getSourceFile(),
+                            prevLine,
+                            true
+                    ));
                 }
             }
         }
-    }
-    private String getSourceLine(String sourceFile, String className, int lineNumber) {
-        String packagePath = className.contains(".")
-                ? className.substring(0, className.lastIndexOf('.')).replace('.', '/') + "/"
-                : "";
-        String[] possiblePaths = {
-                "src/main/java/" + packagePath + sourceFile,
-                "src/main/java/dbg/" + sourceFile,
-                "src/main/java/" + sourceFile,
-                "src/" + packagePath + sourceFile,
-                sourceFile
-        };
-        for (String path : possiblePaths) {
-            try {
-                java.nio.file.Path p = java.nio.file.Paths.get(path);
-                if (java.nio.file.Files.exists(p)) {
-                    List<String> lines = java.nio.file.Files.readAllLines(p);
-                    if (lineNumber > 0 && lineNumber <= lines.size()) {
-                        return lines.get(lineNumber - 1);
-                    }
+        @Override
+        protected void process(List<MethodCallEntry> chunk) {
+            if (scan != this || isCancelled()) {
+                return;
+            }
+            for (MethodCallEntry entry : chunk) {
+                allCalls.add(entry);
+                if (matchesFilter(entry)) {
+                    callsModel.addElement(entry);
                 }
-            } catch (Exception e) {
             }
         }
-        return null;
-    }
-    private List<String> extractMethodCalls(String line) {
-        List<String> calls = new ArrayList<>();
-        java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(
-                "\\.\\s*([a-zA-Z_][a-zA-Z0-9_]*)\\s*\\("
-        );
-        java.util.regex.Matcher matcher = pattern.matcher(line);
-        while (matcher.find()) {
-            String methodName = matcher.group(1);
-            if (!methodName.equals("class") && !methodName.equals("new")) {
-                calls.add(methodName);
+        @Override
+        protected void done() {
+            if (scan == this) {
+                scan = null;
+                progressBar.finish();
             }
         }
-        return calls;
     }
     public void filterByClassAndMethod(String className, String methodName) {
         SwingUtilities.invokeLater(() -> {
+            filterClassName = className;
+            filterMethodName = methodName;
             callsModel.clear();
             for (MethodCallEntry entry : allCalls) {
-                boolean matchesClass = className == null || className.isEmpty() ||
-                        entry.className.equals(className) ||
-                        entry.className.endsWith("." + className);
-                boolean matchesMethod = methodName == null || methodName.isEmpty() ||
-                        entry.methodName.equals(methodName);
-                if (matchesClass && matchesMethod) {
+                if (matchesFilter(entry)) {
                     callsModel.addElement(entry);
                 }
             }
         });
     }
+    private boolean matchesFilter(MethodCallEntry entry) {
+        boolean matchesClass = filterClassName == null || filterClassName.isEmpty() ||
+                entry.className.equals(filterClassName) ||
+                entry.className.endsWith("." + filterClassName);
+        boolean matchesMethod = filterMethodName == null || filterMethodName.isEmpty() ||
+                entry.methodName.equals(filterMethodName);
+        return matchesClass && matchesMethod;
+    }
     public void setTitle(String title) {
         SwingUtilities.invokeLater(() -> {
             TitledBorder border = BorderFactory.createTitledBorder(
@@ -3,15 +3,41 @@ import gui.theme.Theme;
 import gui.theme.ThemeManager;
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
+import models.OutputLog;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
 import java.awt.*;
+/**
+ * Zone de texte en ajout seul. Les ajouts peuvent venir de n'importe quel thread : ils sont
+ * accumulés puis écrits en une fois par l'EDT, au plus une fois par image, et les lignes
+ * les plus anciennes sont supprimées au-delà de {@link #setMaxLines}.
+ */
 public class OutputPanel extends JPanel {
+    public static final int DEFAULT_MAX_LINES = 5000;
+    private static final int FLUSH_DELAY_MS = 16;
     private final JTextArea outputArea;
     private final Theme theme;
+    private final StringBuilder pending = new StringBuilder();
+    private final Timer flushTimer;
+    private boolean flushScheduled;
+    private volatile int maxLines;
+    /** Journal dont le document affiche le préfixe jusqu'à {@link #shownEnd}, null sinon. */
+    private OutputLog shownLog;
+    private int shownEnd;
     public OutputPanel() {
         this("Console");
     }
 
     public OutputPanel(String title) {
+        this(title, DEFAULT_MAX_LINES);
+    }
+
+    public OutputPanel(String title, int maxLines) {
+        this.maxLines = maxLines;
+        this.flushTimer = new Timer(FLUSH_DELAY_MS, e -> flush());
+        flushTimer.setRepeats(false);
+        // Un tir fusionné avec un événement encore en cours serait perdu, et flushScheduled resterait vrai
+        flushTimer.setCoalesce(false);
         this.theme = ThemeManager.getInstance().getTheme();
         setLayout(new BorderLayout());
         setBackground(theme.getBackgroundPrimary());
@@ -45,12 +71,100 @@ public class OutputPanel extends JPanel {
         setBorder(border);
     }
     public void appendOutput(String text) {
+        synchronized (pending) {
+            pending.append(text);
+            if (flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        flushTimer.start();
+    }
+    private void flush() {
+        String text;
+        synchronized (pending) {
+            text = pending.toString();
+            pending.setLength(0);
+            flushScheduled = false;
+        }
+        if (text.isEmpty()) {
+            return;
+        }
+        shownLog = null;
+        outputArea.append(lastLines(text, maxLines));
+        trimToMaxLines();
+        outputArea.setCaretPosition(outputArea.getDocument().getLength());
+    }
+    private static String lastLines(String text, int count) {
+        int start = text.length() - 1;
+        for (int i = 0; i < count && start > 0; i++) {
+            start = text.lastIndexOf('\n', start - 1);
+        }
+        return start > 0 ? text.substring(start + 1) : text;
+    }
+    private void trimToMaxLines() {
+        try {
+            Document doc = outputArea.getDocument();
+            int lines = outputArea.getLineCount();
+            if (doc.getLength() > 0 && doc.getText(doc.getLength() - 1, 1).equals("\n")) {
+                lines--;
+            }
+            int excess = lines - maxLines;
+            if (excess <= 0) {
+                return;
+            }
+            outputArea.getDocument().remove(0, outputArea.getLineStartOffset(excess));
+        } catch (BadLocationException e) {
+        }
+    }
+    public void setMaxLines(int maxLines) {
+        this.maxLines = Math.max(1, maxLines);
+        SwingUtilities.invokeLater(this::trimToMaxLines);
+    }
+    /** Le texte encore en attente est abandonné avec le reste. */
+    public void clear() {
+        synchronized (pending) {
+            pending.setLength(0);
+        }
         SwingUtilities.invokeLater(() -> {
-            outputArea.append(text);
-            outputArea.setCaretPosition(outputArea.getDocument().getLength());
+            shownLog = null;
+            outputArea.setText("");
         });
     }
-    public void clear() {
-        SwingUtilities.invokeLater(() -> outputArea.setText(""));
+    /**
+     * Affiche le journal jusqu'à l'offset {@code end}. Le document n'est que tronqué ou
+     * complété par rapport à l'affichage précédent : le coût dépend du texte qui change.
+     */
+    public void showLogUpTo(OutputLog log, int end) {
+        synchronized (pending) {
+            pending.setLength(0);
+        }
+        SwingUtilities.invokeLater(() -> {
+            Document doc = outputArea.getDocument();
+            try {
+                if (log != shownLog) {
+                    outputArea.setText(log.substring(log.lineStartBefore(end, maxLines), end));
+                } else if (end > shownEnd) {
+                    outputArea.append(lastLines(log.substring(shownEnd, end), maxLines));
+                    trimToMaxLines();
+                } else if (shownEnd - end <= doc.getLength()) {
+                    doc.remove(doc.getLength() - (shownEnd - end), shownEnd - end);
+                    // Recompléter la tête si des lignes y avaient été supprimées
+                    int docStart = end - doc.getLength();
+                    int wanted = log.lineStartBefore(end, maxLines);
+                    if (wanted < docStart) {
+                        doc.insertString(0, log.substring(wanted, docStart), null);
+                    }
+                } else {
+                    // On remonte avant les lignes déjà supprimées en tête
+                    outputArea.setText(log.substring(log.lineStartBefore(end, maxLines), end));
+                }
+            } catch (BadLocationException e) {
+                outputArea.setText(log.substring(log.lineStartBefore(end, maxLines), end));
+            }
+            shownLog = log;
+            shownEnd = end;
+            outputArea.setCaretPosition(doc.getLength());
+        });
     }
 }
@@ -0,0 +1,167 @@
+package gui.components;
+import gui.theme.Theme;
+import gui.theme.ThemeManager;
+import models.ExecutionHistory;
+import query.QueryEngine;
+import query.QueryExecution;
+import query.QueryListener;
+import query.QueryParser;
+import query.QueryResult;
+import query.TraceQuery;
+import javax.swing.*;
+import javax.swing.border.TitledBorder;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+public class QueryPanel extends JPanel {
+    private final JTextField queryField;
+    private final JList<QueryResult> resultsList;
+    private final DefaultListModel<QueryResult> resultsModel;
+    private final JLabel statusLabel;
+    private final ScanProgressBar progressBar;
+    private final Theme theme;
+    private QueryPanelListener listener;
+    private ExecutionHistory history;
+    private QueryExecution running;
+    private int queryGeneration;
+    public interface QueryPanelListener {
+        void onResultSelected(int stepNumber);
+        void onClose();
+    }
+    public QueryPanel() {
+        this.theme = ThemeManager.getInstance().getTheme();
+        this.resultsModel = new DefaultListModel<>();
+        setLayout(new BorderLayout());
+        setBackground(theme.getBackgroundSecondary());
+        JPanel headerPanel = new JPanel(new BorderLayout(6, 0));
+        headerPanel.setBackground(theme.getBackgroundTertiary());
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(4, 8, 4, 4));
+        queryField = new JTextField("steps where x > 10 in JDISimpleDebuggee.main");
+        queryField.setBackground(theme.getBackgroundPrimary());
+        queryField.setForeground(theme.getTextPrimary());
+        queryField.setCaretColor(theme.getTextPrimary());
+        queryField.setFont(theme.getCodeFont());
+        queryField.addActionListener(e -> runQuery());
+        StyledButton runButton = new StyledButton("Run", StyledButton.ButtonType.PRIMARY);
+        runButton.addActionListener(e -> runQuery());
+        JButton closeButton = new JButton("✕");
+        closeButton.setForeground(theme.getTextMuted());
+        closeButton.setBackground(theme.getBackgroundTertiary());
+        closeButton.setBorderPainted(false);
+        closeButton.setFocusPainted(false);
+        closeButton.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        closeButton.addActionListener(e -> {
+            if (listener != null) listener.onClose();
+        });
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 4, 0));
+        buttons.setOpaque(false);
+        buttons.add(runButton);
+        buttons.add(closeButton);
+        headerPanel.add(queryField, BorderLayout.CENTER);
+        headerPanel.add(buttons, BorderLayout.EAST);
+        resultsList = createList();
+        JScrollPane scrollPane = new JScrollPane(resultsList);
+        scrollPane.setBorder(null);
+        statusLabel = new JLabel(" ");
+        statusLabel.setForeground(theme.getTextMuted());
+        statusLabel.setFont(theme.getSmallFont());
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(2, 8, 2, 8));
+        add(headerPanel, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+        progressBar = new ScanProgressBar();
+        JPanel footer = new JPanel(new BorderLayout());
+        footer.setOpaque(false);
+        footer.add(statusLabel, BorderLayout.CENTER);
+        footer.add(progressBar, BorderLayout.SOUTH);
+        add(footer, BorderLayout.SOUTH);
+        applyTitledBorder("QUERY");
+    }
+    private JList<QueryResult> createList() {
+        JList<QueryResult> list = new JList<>(resultsModel);
+        list.setBackground(theme.getBackgroundPrimary());
+        list.setForeground(theme.getTextSecondary());
+        list.setSelectionBackground(theme.getAccentPrimary());
+        list.setSelectionForeground(Color.WHITE);
+        list.setFont(theme.getUIFont());
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    QueryResult result = list.getSelectedValue();
+                    if (result != null && listener != null) {
+                        listener.onResultSelected(result.getStepNumber());
+                    }
+                }
+            }
+        });
+        return list;
+    }
+    private void applyTitledBorder(String title) {
+        TitledBorder border = BorderFactory.createTitledBorder(
+                BorderFactory.createMatteBorder(1, 0, 0, 0, theme.getBorderColor()),
+                title);
+        border.setTitleColor(theme.getTextMuted());
+        border.setTitleFont(theme.getSmallFont());
+        setBorder(border);
+    }
+    public void setListener(QueryPanelListener listener) {
+        this.listener = listener;
+    }
+    public void setExecutionHistory(ExecutionHistory history) {
+        this.history = history;
+    }
+    private void runQuery() {
+        if (running != null) {
+            running.cancel();
+            running = null;
+            queryGeneration++;
+            progressBar.finish();
+        }
+        resultsModel.clear();
+        if (history == null || history.isEmpty()) {
+            statusLabel.setText("No execution history available");
+            return;
+        }
+        TraceQuery query;
+        try {
+            query = QueryParser.parse(queryField.getText());
+        } catch (IllegalArgumentException e) {
+            statusLabel.setText(e.getMessage());
+            return;
+        }
+        int generation = ++queryGeneration;
+        statusLabel.setText("Running...");
+        running = new QueryEngine(history).start(query, new QueryListener() {
+            @Override
+            public void onResults(List<QueryResult> results) {
+                SwingUtilities.invokeLater(() -> {
+                    if (generation == queryGeneration) {
+                        results.forEach(resultsModel::addElement);
+                    }
+                });
+            }
+            @Override
+            public void onProgress(int scanned, int total) {
+                SwingUtilities.invokeLater(() -> {
+                    if (generation == queryGeneration) {
+                        progressBar.setProgress(scanned, total);
+                    }
+                });
+            }
+            @Override
+            public void onComplete(int resultCount, boolean cancelled) {
+                SwingUtilities.invokeLater(() -> {
+                    if (generation == queryGeneration) {
+                        progressBar.finish();
+                        statusLabel.setText(resultCount + " result(s)" + (cancelled ? " (cancelled)" : ""));
+                    }
+                });
+            }
+        });
+        QueryExecution execution = running;
+        if (!execution.isDone()) {
+            progressBar.start(execution::cancel);
+        }
+    }
+}
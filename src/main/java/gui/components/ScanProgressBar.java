@@ -0,0 +1,55 @@
+package gui.components;
+import gui.theme.Theme;
+import gui.theme.ThemeManager;
+import javax.swing.*;
+import java.awt.*;
+public class ScanProgressBar extends JPanel {
+    private final JProgressBar progressBar;
+    private final JButton cancelButton;
+    private Runnable cancelAction;
+    public ScanProgressBar() {
+        Theme theme = ThemeManager.getInstance().getTheme();
+        setLayout(new BorderLayout(6, 0));
+        setBackground(theme.getBackgroundSecondary());
+        setBorder(BorderFactory.createEmptyBorder(2, 8, 2, 4));
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setFont(theme.getSmallFont());
+        progressBar.setForeground(theme.getAccentPrimary());
+        progressBar.setBackground(theme.getBackgroundPrimary());
+        progressBar.setBorderPainted(false);
+        cancelButton = new JButton("Cancel");
+        cancelButton.setFont(theme.getSmallFont());
+        cancelButton.setForeground(theme.getTextSecondary());
+        cancelButton.setBackground(theme.getBackgroundTertiary());
+        cancelButton.setBorderPainted(false);
+        cancelButton.setFocusPainted(false);
+        cancelButton.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        cancelButton.addActionListener(e -> {
+            if (cancelAction != null) {
+                cancelAction.run();
+            }
+            finish();
+        });
+        add(progressBar, BorderLayout.CENTER);
+        add(cancelButton, BorderLayout.EAST);
+        setVisible(false);
+    }
+    public void start(Runnable cancelAction) {
+        this.cancelAction = cancelAction;
+        progressBar.setValue(0);
+        progressBar.setString("Scanning...");
+        setVisible(true);
+        revalidate();
+    }
+    public void setProgress(int done, int total) {
+        int percent = total > 0 ? (int) (100L * done / total) : 100;
+        progressBar.setValue(percent);
+        progressBar.setString("Scanning... " + done + "/" + total);
+    }
+    public void finish() {
+        cancelAction = null;
+        setVisible(false);
+        revalidate();
+    }
+}
@@ -11,6 +11,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 public class SourceCodePanel extends JPanel {
     private List<String> sourceLines;
+    private Token[][] tokenCache = new Token[0][];
     private int currentLine = -1;
     private final Set<Integer> breakpoints;
     private final Theme theme;
@@ -26,6 +27,20 @@ public class SourceCodePanel extends JPanel {
             "import", "package", "this", "super", "extends", "implements",
             "true", "false", "null", "try", "catch", "finally", "throw", "throws"
     ));
+    private static final Pattern TOKEN_PATTERN = Pattern.compile("\"[^\"]*\"|'[^']*'|//.*|\\b\\w+\\b|@\\w+|[^\\s]");
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("\\d+(\\.\\d+)?");
+    private static final Pattern WORD_PATTERN = Pattern.compile("\\w+");
+    /** Jeton coloré d'une ligne, avec sa position horizontale relative au début du texte. */
+    private static class Token {
+        final String text;
+        final int offset;
+        final Color color;
+        Token(String text, int offset, Color color) {
+            this.text = text;
+            this.offset = offset;
+            this.color = color;
+        }
+    }
     public interface BreakpointListener {
         void onBreakpointToggle(int lineNumber) throws Exception;
     }
@@ -42,9 +57,13 @@ public class SourceCodePanel extends JPanel {
         scrollPane.getHorizontalScrollBar().setUnitIncrement(16);
         add(scrollPane, BorderLayout.CENTER);
     }
+    /** Les lignes et leur cache de jetons sont remplacés ensemble sur l'EDT, seul thread qui les lit. */
     public void setSourceLines(List<String> lines) {
-        this.sourceLines = new ArrayList<>(lines);
+        List<String> copy = new ArrayList<>(lines);
+        Token[][] tokens = new Token[copy.size()][];
         SwingUtilities.invokeLater(() -> {
+            sourceLines = copy;
+            tokenCache = tokens;
             codePanel.updateSize();
             codePanel.revalidate();
             codePanel.repaint();
@@ -53,9 +72,11 @@ public class SourceCodePanel extends JPanel {
         });
     }
     public void setCurrentLine(int line) {
+        int previous = this.currentLine;
         this.currentLine = line;
         SwingUtilities.invokeLater(() -> {
-            codePanel.repaint();
+            repaintLine(previous);
+            repaintLine(line);
             scrollToLine(line);
         });
     }
@@ -66,6 +87,11 @@ public class SourceCodePanel extends JPanel {
             codePanel.scrollRectToVisible(rect);
         }
     }
+    private void repaintLine(int line) {
+        if (line > 0) {
+            codePanel.repaint(0, (line - 1) * LINE_HEIGHT, codePanel.getWidth(), LINE_HEIGHT);
+        }
+    }
     public void toggleBreakpoint(int line) {
         if (breakpoints.contains(line)) {
             breakpoints.remove(line);
@@ -132,11 +158,20 @@ public class SourceCodePanel extends JPanel {
             g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
                     RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
             g2.setFont(theme.getCodeFont());
-            for (int i = 0; i < sourceLines.size(); i++) {
-                paintLine(g2, i);
+            List<String> lines = sourceLines;
+            Token[][] tokens = tokenCache;
+            Rectangle clip = g2.getClipBounds();
+            int first = 0;
+            int last = lines.size() - 1;
+            if (clip != null) {
+                first = Math.max(first, clip.y / LINE_HEIGHT);
+                last = Math.min(last, (clip.y + clip.height) / LINE_HEIGHT);
+            }
+            for (int i = first; i <= last; i++) {
+                paintLine(g2, lines, tokens, i);
             }
         }
-        private void paintLine(Graphics2D g2, int index) {
+        private void paintLine(Graphics2D g2, List<String> lines, Token[][] tokens, int index) {
             int y = index * LINE_HEIGHT;
             int lineNum = index + 1;
             if (lineNum == currentLine) {
@@ -155,34 +190,33 @@ public class SourceCodePanel extends JPanel {
                 g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
                 g2.fillOval(40, y + 6, 10, 10);
             }
-            drawSyntaxHighlightedLine(g2, sourceLines.get(index), GUTTER_WIDTH + 15, y + 16);
+            Token[] lineTokens = tokens[index];
+            if (lineTokens == null) {
+                lineTokens = tokenize(lines.get(index), g2.getFontMetrics());
+                tokens[index] = lineTokens;
+            }
+            for (Token token : lineTokens) {
+                g2.setColor(token.color);
+                g2.drawString(token.text, GUTTER_WIDTH + 15 + token.offset, y + 16);
+            }
         }
-        private void drawSyntaxHighlightedLine(Graphics2D g2, String line, int x, int y) {
-            FontMetrics fm = g2.getFontMetrics();
-            Pattern pattern = Pattern.compile("\"[^\"]*\"|'[^']*'|//.*|\\b\\w+\\b|@\\w+|[^\\s]");
-            Matcher matcher = pattern.matcher(line);
-            int currentX = x;
+        /** Découpe une ligne une seule fois ; le cache est vidé quand la source change. */
+        private Token[] tokenize(String line, FontMetrics fm) {
+            List<Token> tokens = new ArrayList<>();
+            Matcher matcher = TOKEN_PATTERN.matcher(line);
+            int currentX = 0;
             int lastEnd = 0;
-
             while (matcher.find()) {
-                // Dessiner les espaces avant le token (pour préserver l'indentation)
+                // Avancer sur les espaces avant le token (pour préserver l'indentation)
                 if (matcher.start() > lastEnd) {
-                    String spaces = line.substring(lastEnd, matcher.start());
-                    currentX += fm.stringWidth(spaces);
+                    currentX += fm.stringWidth(line.substring(lastEnd, matcher.start()));
                 }
-
                 String token = matcher.group();
-                g2.setColor(getTokenColor(token, line, matcher.end()));
-                g2.drawString(token, currentX, y);
+                tokens.add(new Token(token, currentX, getTokenColor(token, line, matcher.end())));
                 currentX += fm.stringWidth(token);
                 lastEnd = matcher.end();
             }
-
-            // Dessiner les espaces restants à la fin de la ligne
-            if (lastEnd < line.length()) {
-                String trailing = line.substring(lastEnd);
-                currentX += fm.stringWidth(trailing);
-            }
+            return tokens.toArray(new Token[0]);
         }
         private Color getTokenColor(String token, String line, int tokenEnd) {
             if (token.startsWith("//")) {
@@ -191,7 +225,7 @@ public class SourceCodePanel extends JPanel {
             if (token.startsWith("\"") || token.startsWith("'")) {
                 return theme.getCodeString();
             }
-            if (token.matches("\\d+(\\.\\d+)?")) {
+            if (Character.isDigit(token.charAt(0)) && NUMBER_PATTERN.matcher(token).matches()) {
                 return theme.getCodeNumber();
             }
             if (KEYWORDS.contains(token)) {
@@ -200,7 +234,7 @@ public class SourceCodePanel extends JPanel {
             if (token.startsWith("@")) {
                 return theme.getCodeAnnotation();
             }
-            if (token.matches("\\w+") && tokenEnd < line.length() && line.charAt(tokenEnd) == '(') {
+            if (WORD_PATTERN.matcher(token).matches() && tokenEnd < line.length() && line.charAt(tokenEnd) == '(') {
                 return theme.getCodeMethod();
             }
             return theme.getCodeDefault();
@@ -11,6 +11,7 @@ public class ToolbarPanel extends JPanel {
     private final StyledButton stepBackButton;
     private final StyledButton stopButton;
     private final StyledButton methodCallsButton;
+    private final StyledButton queryButton;
     private ToolbarListener listener;
     public interface ToolbarListener {
         void onContinue();
@@ -19,6 +20,7 @@ public class ToolbarPanel extends JPanel {
         void onStepBack();
         void onStop();
         void onShowMethodCalls();
+        void onShowQuery();
     }
     public ToolbarPanel() {
         Theme theme = ThemeManager.getInstance().getTheme();
@@ -33,12 +35,14 @@ public class ToolbarPanel extends JPanel {
         stepOverButton = new StyledButton("↓ Step Over", StyledButton.ButtonType.PRIMARY);
         stepIntoButton = new StyledButton("↓ Step Into", StyledButton.ButtonType.PRIMARY);
         methodCallsButton = new StyledButton("📞 Calls", StyledButton.ButtonType.PRIMARY);
+        queryButton = new StyledButton("🔎 Query", StyledButton.ButtonType.PRIMARY);
         stopButton = new StyledButton("⏹ Stop", StyledButton.ButtonType.DANGER);
         continueButton.addActionListener(e -> { if (listener != null) listener.onContinue(); });
         stepBackButton.addActionListener(e -> { if (listener != null) listener.onStepBack(); });
         stepOverButton.addActionListener(e -> { if (listener != null) listener.onStepOver(); });
         stepIntoButton.addActionListener(e -> { if (listener != null) listener.onStepInto(); });
         methodCallsButton.addActionListener(e -> { if (listener != null) listener.onShowMethodCalls(); });
+        queryButton.addActionListener(e -> { if (listener != null) listener.onShowQuery(); });
         stopButton.addActionListener(e -> { if (listener != null) listener.onStop(); });
         add(continueButton);
         addSeparator();
@@ -47,6 +51,7 @@ public class ToolbarPanel extends JPanel {
         add(stepIntoButton);
         addSeparator();
         add(methodCallsButton);
+        add(queryButton);
         add(Box.createHorizontalGlue());
         add(stopButton);
     }
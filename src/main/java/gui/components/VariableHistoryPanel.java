@@ -2,12 +2,12 @@ package gui.components;
 import gui.theme.Theme;
 import gui.theme.ThemeManager;
 import models.ExecutionSnapshot;
+import models.RecordedValue;
 import models.VariableSnapshot;
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.ArrayList;
 import java.util.List;
 public class VariableHistoryPanel extends JPanel {
     private final Theme theme;
@@ -18,6 +18,9 @@ public class VariableHistoryPanel extends JPanel {
     private final JButton closeButton;
     private String currentVariableId;
     private String currentVariableName;
+    private final ScanProgressBar progressBar;
+    private HistoryScan scan;
+    private RecordedValue previousValue;
     public interface HistoryPanelListener {
         void onClose();
         void onStepSelected(int stepNumber);
@@ -93,159 +96,152 @@ public class VariableHistoryPanel extends JPanel {
         emptyLabel.setHorizontalAlignment(SwingConstants.CENTER);
         emptyLabel.setFont(new Font("Segoe UI", Font.ITALIC, 12));
         add(headerPanel, BorderLayout.NORTH);
+        progressBar = new ScanProgressBar();
         add(scrollPane, BorderLayout.CENTER);
+        add(progressBar, BorderLayout.SOUTH);
         showEmptyState();
     }
     public void setListener(HistoryPanelListener listener) {
         this.listener = listener;
     }
     public void showVariableHistory(String variableId, String variableName, List<ExecutionSnapshot> snapshots) {
+        if (scan != null) {
+            scan.cancel(false);
+        }
         this.currentVariableId = variableId;
         this.currentVariableName = variableName;
         titleLabel.setText("History: " + variableName);
         tableModel.setRowCount(0);
-        List<HistoryEntry> entries = extractVariableHistory(variableId, variableName, snapshots);
-        String previousValue = null;
-        int previousSize = -1;
-        boolean isFirstEntry = true;
-
-        for (HistoryEntry entry : entries) {
-            boolean changed = previousValue != null && !previousValue.equals(entry.value);
-            boolean isCollection = isCollectionValue(entry.value);
-            boolean sizeIncreased = false;
-            boolean sizeDecreased = false;
-
-            // Si c'est une collection, vérifier le changement de taille
-            if (isCollection && previousValue != null && isCollectionValue(previousValue)) {
-                int currentSize = extractCollectionSize(entry.value);
-                if (currentSize != -1 && previousSize != -1) {
-                    if (currentSize > previousSize) {
-                        sizeIncreased = true;
-                    } else if (currentSize < previousSize) {
-                        sizeDecreased = true;
-                    }
-                }
-                previousSize = currentSize;
-            } else if (isCollection) {
-                previousSize = extractCollectionSize(entry.value);
-            }
-
-            Object[] row = {
-                entry.stepNumber,
-                new ValueCell(entry.value, changed, isCollection, sizeIncreased, sizeDecreased, isFirstEntry),
-                entry.methodName,
-                entry.lineNumber
-            };
-            tableModel.addRow(row);
-            previousValue = entry.value;
-            isFirstEntry = false;
-        }
-        if (entries.isEmpty()) {
-            showEmptyState();
-        } else {
-            emptyLabel.setVisible(false);
-            historyTable.setVisible(true);
-        }
+        previousValue = null;
+        emptyLabel.setVisible(false);
+        historyTable.setVisible(true);
+        HistoryScan newScan = new HistoryScan(variableId, variableName, snapshots);
+        scan = newScan;
+        progressBar.start(() -> newScan.cancel(false));
+        newScan.execute();
         revalidate();
         repaint();
     }
-    private List<HistoryEntry> extractVariableHistory(String variableId, String variableName, List<ExecutionSnapshot> snapshots) {
-        List<HistoryEntry> entries = new ArrayList<>();
-        String lastValue = null;
-        for (ExecutionSnapshot snapshot : snapshots) {
-            VariableSnapshot found = null;
-            if (variableId != null) {
-                found = snapshot.getVariableById(variableId);
-            }
-            if (found == null) {
-                for (VariableSnapshot vs : snapshot.getVariableSnapshots()) {
-                    if (vs.getName().equals(variableName)) {
-                        found = vs;
-                        break;
+    private void appendEntry(HistoryEntry entry) {
+        boolean isFirstEntry = tableModel.getRowCount() == 0;
+        boolean isCollection = entry.value.getSize() >= 0;
+        boolean sizeIncreased = false;
+        boolean sizeDecreased = false;
+        // Si c'est une collection, comparer la taille brute à la précédente
+        if (isCollection && previousValue != null && previousValue.getSize() >= 0) {
+            sizeIncreased = entry.value.getSize() > previousValue.getSize();
+            sizeDecreased = entry.value.getSize() < previousValue.getSize();
+        }
+        boolean changed = previousValue != null && !previousValue.equals(entry.value);
+        Object[] row = {
+            entry.stepNumber,
+            new ValueCell(entry.value.toString(), changed, isCollection, sizeIncreased, sizeDecreased, isFirstEntry),
+            entry.methodName,
+            entry.lineNumber
+        };
+        tableModel.addRow(row);
+        previousValue = entry.value;
+    }
+    /**
+     * Recherche les valeurs successives de la variable en arrière-plan ; les lignes
+     * sont ajoutées au tableau par paquets, au fil du parcours.
+     */
+    private class HistoryScan extends SwingWorker<Void, HistoryEntry> {
+        private final String variableId;
+        private final String variableName;
+        private final List<ExecutionSnapshot> snapshots;
+        private volatile int scanned;
+        HistoryScan(String variableId, String variableName, List<ExecutionSnapshot> snapshots) {
+            this.variableId = variableId;
+            this.variableName = variableName;
+            this.snapshots = snapshots;
+            addPropertyChangeListener(e -> {
+                if ("progress".equals(e.getPropertyName()) && scan == this) {
+                    progressBar.setProgress(scanned, snapshots.size());
+                }
+            });
+        }
+        @Override
+        protected Void doInBackground() {
+            RecordedValue lastValue = null;
+            int total = snapshots.size();
+            for (int i = 0; i < total && !isCancelled(); i++) {
+                ExecutionSnapshot snapshot = snapshots.get(i);
+                VariableSnapshot found = findVariable(snapshot, variableId, variableName);
+                if (found != null) {
+                    RecordedValue currentValue = found.getRecordedValue();
+                    if (lastValue == null || !lastValue.equals(currentValue)) {
+                        publish(new HistoryEntry(
+                            snapshot.getStepNumber(),
+                            currentValue,
+                            snapshot.getMethodName(),
+                            snapshot.getLineNumber()
+                        ));
+                        lastValue = currentValue;
                     }
                 }
+                scanned = i + 1;
+                setProgress((int) (100L * scanned / total));
             }
-            if (found != null) {
-                String currentValue = found.getValue();
-                if (lastValue == null || !lastValue.equals(currentValue)) {
-                    entries.add(new HistoryEntry(
-                        snapshot.getStepNumber(),
-                        currentValue,
-                        snapshot.getMethodName(),
-                        snapshot.getLineNumber()
-                    ));
-                    lastValue = currentValue;
-                }
+            return null;
+        }
+        @Override
+        protected void process(List<HistoryEntry> chunk) {
+            if (scan != this || isCancelled()) {
+                return;
+            }
+            for (HistoryEntry entry : chunk) {
+                appendEntry(entry);
             }
         }
-        return entries;
-    }
-
-    /**
-     * Extrait la taille d'une collection depuis sa représentation en string.
-     * Exemples supportés:
-     * - "ArrayList (size = 5)" -> 5
-     * - "Array[10]" -> 10
-     * - "[1, 2, 3]" -> 3
-     * - "size=5" -> 5
-     * @return La taille si détectée, sinon -1
-     */
-    private int extractCollectionSize(String value) {
-        if (value == null) return -1;
-
-        //Pattern: "size = X" ou "size=X"
-        java.util.regex.Pattern sizePattern = java.util.regex.Pattern.compile("size\\s*=\\s*(\\d+)");
-        java.util.regex.Matcher sizeMatcher = sizePattern.matcher(value);
-        if (sizeMatcher.find()) {
-            return Integer.parseInt(sizeMatcher.group(1));
+        @Override
+        protected void done() {
+            if (scan != this) {
+                return;
+            }
+            scan = null;
+            progressBar.finish();
+            if (tableModel.getRowCount() == 0 && !isCancelled()) {
+                showEmptyState();
+            }
         }
-
-        // Pattern: "Array[X]"
-        java.util.regex.Pattern arrayPattern = java.util.regex.Pattern.compile("Array\\[(\\d+)\\]");
-        java.util.regex.Matcher arrayMatcher = arrayPattern.matcher(value);
-        if (arrayMatcher.find()) {
-            return Integer.parseInt(arrayMatcher.group(1));
+    }
+    private static VariableSnapshot findVariable(ExecutionSnapshot snapshot, String variableId, String variableName) {
+        if (variableId != null) {
+            VariableSnapshot found = snapshot.getVariableById(variableId);
+            if (found != null) {
+                return found;
+            }
         }
-
-        // Pattern: "[a, b, c]" - compter les éléments séparés par des virgules
-        if (value.startsWith("[") && value.endsWith("]")) {
-            String content = value.substring(1, value.length() - 1).trim();
-            if (content.isEmpty()) return 0;
-            // Compter les virgules + 1
-            return content.split(",").length;
+        for (VariableSnapshot vs : snapshot.getVariableSnapshots()) {
+            if (vs.getName().equals(variableName)) {
+                return vs;
+            }
         }
-
-        return -1;
+        return null;
     }
 
-    /**
-     * Vérifie si une valeur représente une collection
-     */
-    private boolean isCollectionValue(String value) {
-        if (value == null) return false;
-        return value.contains("size =") || value.contains("size=") ||
-               value.contains("Array[") || value.contains("List") ||
-               value.contains("Collection") || value.contains("Set") ||
-               value.contains("ArrayList") || value.contains("LinkedList") ||
-               value.contains("HashSet") || value.contains("TreeSet") ||
-               value.contains("Vector");
-    }
     private void showEmptyState() {
         tableModel.setRowCount(0);
         titleLabel.setText("Variable History");
         emptyLabel.setVisible(true);
     }
     public void clear() {
+        if (scan != null) {
+            scan.cancel(false);
+            scan = null;
+            progressBar.finish();
+        }
         showEmptyState();
         currentVariableId = null;
         currentVariableName = null;
     }
     private static class HistoryEntry {
         final int stepNumber;
-        final String value;
+        final RecordedValue value;
         final String methodName;
         final int lineNumber;
-        HistoryEntry(int stepNumber, String value, String methodName, int lineNumber) {
+        HistoryEntry(int stepNumber, RecordedValue value, String methodName, int lineNumber) {
             this.stepNumber = stepNumber;
             this.value = value;
             this.methodName = methodName;
@@ -4,21 +4,35 @@ import gui.theme.Theme;
 import gui.theme.ThemeManager;
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeExpansionListener;
+import javax.swing.event.TreeWillExpandListener;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeCellRenderer;
 import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 public class VariablesPanel extends JPanel {
     private final JTree variablesTree;
     private final DefaultTreeModel treeModel;
     private final DefaultMutableTreeNode rootNode;
     private final Theme theme;
-    private final Map<DefaultMutableTreeNode, VariableInfo> nodeToVariableMap = new HashMap<>();
+    private static final int PAGE_SIZE = 100;
+    private static final String LOADING = "loading...";
+    private static final String UNAVAILABLE = "<unavailable>";
+    /** Chemins (noms séparés par '/') des noeuds dépliés, conservés d'un pas à l'autre. */
+    private final Set<String> expandedKeys = new HashSet<>();
     public interface VariableSelectionListener {
         void onVariableDoubleClicked(String variableId, String variableName);
     }
@@ -72,8 +86,12 @@ public class VariablesPanel extends JPanel {
                 if (e.getClickCount() == 2) {
                     TreePath path = tree.getPathForLocation(e.getX(), e.getY());
                     if (path != null) {
-                        DefaultMutableTreeNode node = (DefaultMutableTreeNode) path.getLastPathComponent();
-                        VariableInfo info = nodeToVariableMap.get(node);
+                        Object node = path.getLastPathComponent();
+                        if (node instanceof MoreNode) {
+                            loadNextPage((VariableNode) ((MoreNode) node).getParent());
+                            return;
+                        }
+                        VariableInfo info = node instanceof VariableNode ? ((VariableNode) node).info : null;
                         if (info != null && selectionListener != null) {
                             selectionListener.onVariableDoubleClicked(info.uniqueId, info.name);
                         }
@@ -81,6 +99,34 @@ public class VariablesPanel extends JPanel {
                 }
             }
         });
+        tree.addTreeWillExpandListener(new TreeWillExpandListener() {
+            @Override
+            public void treeWillExpand(TreeExpansionEvent event) {
+                Object node = event.getPath().getLastPathComponent();
+                if (node instanceof VariableNode) {
+                    ensureLoaded((VariableNode) node);
+                }
+            }
+            @Override
+            public void treeWillCollapse(TreeExpansionEvent event) {
+            }
+        });
+        tree.addTreeExpansionListener(new TreeExpansionListener() {
+            @Override
+            public void treeExpanded(TreeExpansionEvent event) {
+                Object node = event.getPath().getLastPathComponent();
+                if (node instanceof VariableNode) {
+                    expandedKeys.add(pathKey((VariableNode) node));
+                }
+            }
+            @Override
+            public void treeCollapsed(TreeExpansionEvent event) {
+                Object node = event.getPath().getLastPathComponent();
+                if (node instanceof VariableNode) {
+                    expandedKeys.remove(pathKey((VariableNode) node));
+                }
+            }
+        });
         return tree;
     }
     private void applyTitledBorder(String title) {
@@ -96,73 +142,304 @@ public class VariablesPanel extends JPanel {
     }
     public void updateVariables(java.util.List<models.Variable> variables) {
         SwingUtilities.invokeLater(() -> {
-            rootNode.removeAllChildren();
-            nodeToVariableMap.clear();
+            java.util.List<VariableNode> fresh = new ArrayList<>();
             if (variables != null) {
                 for (models.Variable v : variables) {
-                    DefaultMutableTreeNode varNode = createVariableNode(v.getName(), v.getValue());
-                    nodeToVariableMap.put(varNode, new VariableInfo(v.getName(), null));
-                    rootNode.add(varNode);
+                    VariableNode node = createVariableNode(v.getName(), v.getValue());
+                    node.info = new VariableInfo(v.getName(), null);
+                    fresh.add(node);
                 }
             }
-            treeModel.reload();
-            expandAllNodes();
+            updateRoot(fresh);
         });
     }
     public void updateFromSnapshots(java.util.List<models.VariableSnapshot> snapshots) {
         SwingUtilities.invokeLater(() -> {
-            rootNode.removeAllChildren();
-            nodeToVariableMap.clear();
+            java.util.List<VariableNode> fresh = new ArrayList<>();
             if (snapshots != null) {
                 for (models.VariableSnapshot vs : snapshots) {
-                    DefaultMutableTreeNode varNode = createSnapshotNode(vs);
-                    rootNode.add(varNode);
+                    fresh.add(createSnapshotNode(vs));
                 }
             }
-            treeModel.reload();
-            expandFirstLevel();
+            updateRoot(fresh);
         });
     }
-    private DefaultMutableTreeNode createSnapshotNode(models.VariableSnapshot vs) {
-        String display = vs.getName() + " (" + vs.getType() + ") = " + vs.getValue();
-        DefaultMutableTreeNode node = new DefaultMutableTreeNode(display);
-        nodeToVariableMap.put(node, new VariableInfo(vs.getName(), vs.getUniqueId()));
-        if (vs.hasChildren()) {
-            for (models.VariableSnapshot child : vs.getChildren()) {
-                node.add(createSnapshotNode(child));
+    /**
+     * Les variables de premier niveau nouvellement apparues sont dépliées une fois ;
+     * ensuite l'état de dépliage choisi par l'utilisateur est conservé d'un pas à l'autre.
+     */
+    private void updateRoot(java.util.List<VariableNode> fresh) {
+        for (VariableNode node : fresh) {
+            if (node.children != null && findChild(rootNode, node.key) == null) {
+                expandedKeys.add(node.key);
             }
         }
-        return node;
+        if (reconcileChildren(rootNode, fresh)) {
+            variablesTree.expandPath(new TreePath(rootNode));
+        }
+        restoreExpansion(rootNode);
     }
-    private void expandFirstLevel() {
-        for (int i = 0; i < rootNode.getChildCount(); i++) {
-            variablesTree.expandRow(i + 1);
+    /**
+     * Réutilise les noeuds existants de même nom. Si l'ordre des noms est inchangé, seuls
+     * les noeuds dont la valeur a changé sont notifiés ; sinon la structure du parent est
+     * republiée et l'état de dépliage restauré depuis {@link #expandedKeys}.
+     * @return true si la structure du parent a été republiée
+     */
+    private boolean reconcileChildren(DefaultMutableTreeNode parent, java.util.List<VariableNode> fresh) {
+        boolean sameShape = parent.getChildCount() == fresh.size();
+        for (int i = 0; sameShape && i < fresh.size(); i++) {
+            TreeNode child = parent.getChildAt(i);
+            sameShape = child instanceof VariableNode && ((VariableNode) child).key.equals(fresh.get(i).key);
+        }
+        if (sameShape) {
+            for (int i = 0; i < fresh.size(); i++) {
+                updateNode((VariableNode) parent.getChildAt(i), fresh.get(i));
+            }
+            return false;
         }
+        Map<String, VariableNode> existing = new HashMap<>();
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            TreeNode child = parent.getChildAt(i);
+            if (child instanceof VariableNode) {
+                existing.putIfAbsent(((VariableNode) child).key, (VariableNode) child);
+            }
+        }
+        parent.removeAllChildren();
+        for (VariableNode node : fresh) {
+            VariableNode reused = existing.remove(node.key);
+            if (reused != null) {
+                updateNode(reused, node);
+                parent.add(reused);
+            } else {
+                parent.add(node);
+            }
+        }
+        treeModel.nodeStructureChanged(parent);
+        return true;
     }
-    private DefaultMutableTreeNode createVariableNode(String name, Value value) {
-        String display = name + " = " + formatValue(value);
-        DefaultMutableTreeNode node = new DefaultMutableTreeNode(display);
-        if (value instanceof ObjectReference) {
-            ObjectReference obj = (ObjectReference) value;
-            if (value instanceof ArrayReference) {
-                ArrayReference array = (ArrayReference) value;
-                int maxItems = Math.min(array.length(), 100); 
-                for (int i = 0; i < maxItems; i++) {
-                    node.add(createVariableNode("[" + i + "]", array.getValue(i)));
+    private void updateNode(VariableNode node, VariableNode fresh) {
+        node.info = fresh.info;
+        if (!node.display.equals(fresh.display)) {
+            node.display = fresh.display;
+            node.setUserObject(fresh.display);
+            treeModel.nodeChanged(node);
+        }
+        node.children = fresh.children;
+        if (!node.loaded) {
+            return;
+        }
+        if (node.children == null) {
+            cancelLoad(node);
+            node.loaded = false;
+            node.removeAllChildren();
+            treeModel.nodeStructureChanged(node);
+            return;
+        }
+        int count = Math.min(node.children.size(), Math.max(node.loadedCount, PAGE_SIZE));
+        loadAsync(node, 0, count, children -> {
+            removePlaceholder(node);
+            if (children == null) {
+                reconcileChildren(node, Collections.singletonList(unavailableNode()));
+                return;
+            }
+            node.loadedCount = count;
+            reconcileChildren(node, children);
+            updateMoreNode(node);
+            restoreExpansionBelow(node);
+        });
+    }
+    private void updateMoreNode(VariableNode node) {
+        int remaining = node.children.size() - node.loadedCount;
+        if (remaining > 0) {
+            treeModel.insertNodeInto(new MoreNode(remaining), node, node.getChildCount());
+        }
+    }
+    /** Charge la première page d'enfants d'un noeud au moment où il est déplié. */
+    private void ensureLoaded(VariableNode node) {
+        if (node.loaded || node.children == null) {
+            return;
+        }
+        cancelLoad(node);
+        node.loaded = true;
+        node.loadedCount = 0;
+        node.removeAllChildren();
+        loadNextPage(node);
+    }
+    private void loadNextPage(VariableNode node) {
+        if (node.loader != null) {
+            return;
+        }
+        int from = node.loadedCount;
+        int to = Math.min(node.children.size(), from + PAGE_SIZE);
+        removePlaceholder(node);
+        node.add(new DefaultMutableTreeNode(LOADING));
+        treeModel.nodeStructureChanged(node);
+        loadAsync(node, from, to, children -> {
+            removePlaceholder(node);
+            if (children == null) {
+                node.add(unavailableNode());
+            } else {
+                for (VariableNode child : children) {
+                    node.add(child);
                 }
-                if (array.length() > maxItems) {
-                    node.add(new DefaultMutableTreeNode("... (" + (array.length() - maxItems) + " more)"));
+                node.loadedCount = to;
+                if (node.children.size() > to) {
+                    node.add(new MoreNode(node.children.size() - to));
                 }
-            } else {
-                ReferenceType type = obj.referenceType();
-                for (Field field : type.allFields()) {
-                    try {
-                        Value fieldValue = obj.getValue(field);
-                        node.add(createVariableNode(field.name(), fieldValue));
-                    } catch (Exception e) {
-                        node.add(new DefaultMutableTreeNode(field.name() + " = <inaccessible>"));
+            }
+            treeModel.nodeStructureChanged(node);
+            restoreExpansionBelow(node);
+        });
+    }
+    /**
+     * Lit une page d'enfants hors de l'EDT : les enfants d'une valeur JDI interrogent la VM,
+     * qui a pu repartir entre-temps. Un échec est transmis comme une page null ; le résultat
+     * est ignoré si le noeud a été rechargé ou retiré de l'arbre pendant la lecture.
+     */
+    private void loadAsync(VariableNode node, int from, int to, Consumer<java.util.List<VariableNode>> apply) {
+        cancelLoad(node);
+        Children children = node.children;
+        node.loader = new SwingWorker<java.util.List<VariableNode>, Void>() {
+            @Override
+            protected java.util.List<VariableNode> doInBackground() {
+                try {
+                    return children.load(from, to);
+                } catch (RuntimeException e) {
+                    return null;
+                }
+            }
+            @Override
+            protected void done() {
+                if (isCancelled() || node.loader != this) {
+                    return;
+                }
+                node.loader = null;
+                if (node.children != children || node.getRoot() != rootNode) {
+                    return;
+                }
+                try {
+                    apply.accept(get());
+                } catch (InterruptedException | ExecutionException e) {
+                }
+            }
+        };
+        node.loader.execute();
+    }
+    private static void cancelLoad(VariableNode node) {
+        if (node.loader != null) {
+            node.loader.cancel(false);
+            node.loader = null;
+        }
+    }
+    private static VariableNode unavailableNode() {
+        return new VariableNode(UNAVAILABLE, UNAVAILABLE);
+    }
+    private void restoreExpansionBelow(VariableNode node) {
+        if (expandedKeys.contains(pathKey(node))) {
+            restoreExpansion(node);
+        }
+    }
+    /** Retire le noeud « more » ou « loading » qui termine la liste des enfants. */
+    private void removePlaceholder(VariableNode node) {
+        int last = node.getChildCount() - 1;
+        if (last >= 0 && !(node.getChildAt(last) instanceof VariableNode)) {
+            node.remove(last);
+        }
+    }
+    private void restoreExpansion(DefaultMutableTreeNode parent) {
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            TreeNode child = parent.getChildAt(i);
+            if (child instanceof VariableNode && expandedKeys.contains(pathKey((VariableNode) child))) {
+                VariableNode node = (VariableNode) child;
+                TreePath path = new TreePath(node.getPath());
+                if (!variablesTree.isExpanded(path)) {
+                    variablesTree.expandPath(path);
+                }
+                restoreExpansion(node);
+            }
+        }
+    }
+    private static VariableNode findChild(DefaultMutableTreeNode parent, String key) {
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            TreeNode child = parent.getChildAt(i);
+            if (child instanceof VariableNode && ((VariableNode) child).key.equals(key)) {
+                return (VariableNode) child;
+            }
+        }
+        return null;
+    }
+    private static String pathKey(VariableNode node) {
+        StringBuilder sb = new StringBuilder(node.key);
+        for (TreeNode p = node.getParent(); p instanceof VariableNode; p = p.getParent()) {
+            sb.insert(0, '/').insert(0, ((VariableNode) p).key);
+        }
+        return sb.toString();
+    }
+    private VariableNode createSnapshotNode(models.VariableSnapshot vs) {
+        String display = vs.getName() + " (" + vs.getType() + ") = " + vs.getValue();
+        VariableNode node = new VariableNode(vs.getName(), display);
+        node.info = new VariableInfo(vs.getName(), vs.getUniqueId());
+        if (vs.hasChildren()) {
+            java.util.List<models.VariableSnapshot> children = vs.getChildren();
+            node.children = new Children() {
+                @Override
+                public int size() {
+                    return children.size();
+                }
+                @Override
+                public java.util.List<VariableNode> load(int from, int to) {
+                    java.util.List<VariableNode> nodes = new ArrayList<>(to - from);
+                    for (models.VariableSnapshot child : children.subList(from, to)) {
+                        nodes.add(createSnapshotNode(child));
                     }
+                    return nodes;
                 }
+            };
+        }
+        return node;
+    }
+    private VariableNode createVariableNode(String name, Value value) {
+        VariableNode node = new VariableNode(name, name + " = " + formatValue(value));
+        if (value instanceof ArrayReference) {
+            ArrayReference array = (ArrayReference) value;
+            int length = array.length();
+            if (length > 0) {
+                node.children = new Children() {
+                    @Override
+                    public int size() {
+                        return length;
+                    }
+                    @Override
+                    public java.util.List<VariableNode> load(int from, int to) {
+                        java.util.List<VariableNode> nodes = new ArrayList<>(to - from);
+                        java.util.List<Value> values = array.getValues(from, to - from);
+                        for (int i = 0; i < values.size(); i++) {
+                            nodes.add(createVariableNode("[" + (from + i) + "]", values.get(i)));
+                        }
+                        return nodes;
+                    }
+                };
+            }
+        } else if (value instanceof ObjectReference && !(value instanceof StringReference)) {
+            ObjectReference obj = (ObjectReference) value;
+            java.util.List<Field> fields = obj.referenceType().allFields();
+            if (!fields.isEmpty()) {
+                node.children = new Children() {
+                    @Override
+                    public int size() {
+                        return fields.size();
+                    }
+                    @Override
+                    public java.util.List<VariableNode> load(int from, int to) {
+                        java.util.List<VariableNode> nodes = new ArrayList<>(to - from);
+                        java.util.List<Field> page = fields.subList(from, to);
+                        Map<Field, Value> values = obj.getValues(page);
+                        for (Field field : page) {
+                            nodes.add(createVariableNode(field.name(), values.get(field)));
+                        }
+                        return nodes;
+                    }
+                };
             }
         }
         return node;
@@ -178,15 +455,40 @@ public class VariablesPanel extends JPanel {
         }
         return v.toString();
     }
-    private void expandAllNodes() {
-        for (int i = 0; i < variablesTree.getRowCount(); i++) {
-            variablesTree.expandRow(i);
-        }
-    }
     public void clear() {
         SwingUtilities.invokeLater(() -> {
             rootNode.removeAllChildren();
+            expandedKeys.clear();
             treeModel.reload();
         });
     }
+    /** Enfants d'une variable, matérialisés par pages au dépliage, hors de l'EDT. */
+    private interface Children {
+        int size();
+        java.util.List<VariableNode> load(int from, int to);
+    }
+    private static class VariableNode extends DefaultMutableTreeNode {
+        final String key;
+        String display;
+        VariableInfo info;
+        Children children;
+        boolean loaded;
+        int loadedCount;
+        SwingWorker<java.util.List<VariableNode>, Void> loader;
+        VariableNode(String key, String display) {
+            super(display);
+            this.key = key;
+            this.display = display;
+        }
+        @Override
+        public boolean isLeaf() {
+            return children == null;
+        }
+    }
+    /** Marqueur de fin de page : un double-clic charge la page suivante. */
+    private static class MoreNode extends DefaultMutableTreeNode {
+        MoreNode(int remaining) {
+            super("... (" + remaining + " more, double-click to load)");
+        }
+    }
 }
@@ -1,6 +1,9 @@
 package io;
-import javax.swing.*;
 import java.util.function.Consumer;
+/**
+ * Le consommateur est appelé depuis le thread qui journalise : il doit accepter des
+ * appels hors EDT, comme {@code OutputPanel.appendOutput} qui regroupe ses ajouts.
+ */
 public class GUILogger implements Logger {
     private final Consumer<String> outputConsumer;
     private Level minLevel = Level.INFO;
@@ -55,11 +58,6 @@ public class GUILogger implements Logger {
         if (level.ordinal() < minLevel.ordinal()) {
             return;
         }
-        String formatted = "[" + level.name() + "] " + message + "\n";
-        if (SwingUtilities.isEventDispatchThread()) {
-            outputConsumer.accept(formatted);
-        } else {
-            SwingUtilities.invokeLater(() -> outputConsumer.accept(formatted));
-        }
+        outputConsumer.accept("[" + level.name() + "] " + message + "\n");
     }
 }
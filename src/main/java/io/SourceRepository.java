@@ -0,0 +1,125 @@
+package io;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+/**
+ * Fichiers sources partagés par l'interface et les commandes. Le chemin d'un fichier
+ * est résolu une seule fois par paquetage, son contenu lu une fois et indexé par ligne.
+ */
+public class SourceRepository {
+    private static SourceRepository instance;
+    private final Map<String, Optional<SourceFile>> files = new HashMap<>();
+    private SourceRepository() {
+    }
+    public static synchronized SourceRepository getInstance() {
+        if (instance == null) {
+            instance = new SourceRepository();
+        }
+        return instance;
+    }
+    /**
+     * @param className nom qualifié de la classe, pour en déduire le paquetage
+     * @param sourceName nom du fichier tel que donné par le débogué
+     */
+    public synchronized Optional<SourceFile> find(String className, String sourceName) {
+        if (sourceName == null) {
+            return Optional.empty();
+        }
+        String packagePath = className != null && className.contains(".")
+                ? className.substring(0, className.lastIndexOf('.')).replace('.', '/') + "/"
+                : "";
+        return files.computeIfAbsent(packagePath + sourceName, key -> load(packagePath, sourceName));
+    }
+    public Optional<String> getLine(String className, String sourceName, int lineNumber) {
+        return find(className, sourceName).map(file -> file.getLine(lineNumber));
+    }
+    private static Optional<SourceFile> load(String packagePath, String sourceName) {
+        String[] possiblePaths = {
+                "src/main/java/" + packagePath + sourceName,
+                "src/main/java/dbg/" + sourceName,
+                "src/main/java/" + sourceName,
+                "src/" + packagePath + sourceName,
+                sourceName
+        };
+        for (String path : possiblePaths) {
+            Path p = Paths.get(path);
+            if (Files.isRegularFile(p)) {
+                try {
+                    return Optional.of(new SourceFile(p, Files.readAllBytes(p)));
+                } catch (IOException e) {
+                }
+            }
+        }
+        return Optional.empty();
+    }
+    public static class SourceFile {
+        private final Path path;
+        private final byte[] content;
+        private final int[] lineStarts;
+        private final int lineCount;
+        private final List<String> lines = new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return getLine(index + 1);
+            }
+            @Override
+            public int size() {
+                return lineCount;
+            }
+        };
+        SourceFile(Path path, byte[] content) {
+            this.path = path;
+            this.content = content;
+            int[] starts = new int[64];
+            int count = 0;
+            int start = 0;
+            for (int i = 0; i <= content.length; i++) {
+                if (i == content.length || content[i] == '\n') {
+                    if (i == content.length && start == content.length) {
+                        break;
+                    }
+                    if (count + 1 >= starts.length) {
+                        starts = Arrays.copyOf(starts, starts.length * 2);
+                    }
+                    starts[count++] = start;
+                    start = i + 1;
+                }
+            }
+            starts[count] = start;
+            this.lineStarts = starts;
+            this.lineCount = count;
+        }
+        public Path getPath() { return path; }
+        public int getLineCount() { return lineCount; }
+        /** Ligne numérotée à partir de 1, sans fin de ligne ; null hors du fichier. */
+        public String getLine(int lineNumber) {
+            if (lineNumber < 1 || lineNumber > lineCount) {
+                return null;
+            }
+            int start = lineStarts[lineNumber - 1];
+            int end = lineStarts[lineNumber] - 1;
+            if (end > start && content[end - 1] == '\r') {
+                end--;
+            }
+            return new String(content, start, end - start, StandardCharsets.UTF_8);
+        }
+        /** Lignes {@code from} à {@code to} incluses. */
+        public List<String> getLines(int from, int to) {
+            int first = Math.max(1, from);
+            int last = Math.min(lineCount, to);
+            return last < first ? List.of() : lines.subList(first - 1, last);
+        }
+        /** Vue de toutes les lignes, décodées à la demande. */
+        public List<String> getLines() {
+            return lines;
+        }
+    }
+}
@@ -1,14 +1,30 @@
 package managers;
+import com.sun.jdi.AbsentInformationException;
 import com.sun.jdi.Location;
+import com.sun.jdi.Method;
+import com.sun.jdi.ObjectCollectedException;
+import com.sun.jdi.ObjectReference;
 import com.sun.jdi.ReferenceType;
+import com.sun.jdi.ThreadReference;
+import com.sun.jdi.VMDisconnectedException;
 import com.sun.jdi.VirtualMachine;
 import com.sun.jdi.request.BreakpointRequest;
+import com.sun.jdi.request.ClassPrepareRequest;
+import com.sun.jdi.request.EventRequest;
 import models.Breakpoint;
+import models.DebugFrame;
 import models.DebuggerState;
+import models.MethodBreakpoint;
+import models.Variable;
+import query.Expression;
+import query.ExpressionParser;
+import query.QueryParser;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 public class BreakpointManager {
+    private static final String COUNT_FILTER = "countFilter";
     private final DebuggerState state;
     public BreakpointManager(DebuggerState state) {
         this.state = state;
@@ -22,40 +38,306 @@ public class BreakpointManager {
     public Optional<Breakpoint> createBreakpointOnCount(String fileName, int lineNumber, int count) {
         return createBreakpoint(fileName, lineNumber, Breakpoint.BreakpointType.ON_COUNT, count);
     }
+    /**
+     * Breakpoint de rejeu dont la condition est compilée une seule fois ici,
+     * puis évaluée sur les valeurs enregistrées à chaque passage.
+     */
+    public Optional<Breakpoint> createConditionalBreakpoint(String fileName, int lineNumber, String condition) {
+        Expression compiled = ExpressionParser.compile(condition);
+        Optional<Breakpoint> bp = createBreakpoint(fileName, lineNumber, Breakpoint.BreakpointType.CONDITIONAL, 0);
+        bp.ifPresent(b -> b.setCondition(condition, compiled));
+        return bp;
+    }
+    public Optional<Breakpoint> setCondition(String fileName, int lineNumber, String condition) {
+        Expression compiled = condition == null || condition.isEmpty() ? null : ExpressionParser.compile(condition);
+        Optional<Breakpoint> bp = getBreakpoint(fileName, lineNumber);
+        bp.ifPresent(b -> b.setCondition(condition, compiled));
+        return bp;
+    }
     public Optional<Breakpoint> createBreakpoint(String fileName, int lineNumber,
             Breakpoint.BreakpointType type, int count) {
         String normalizedFileName = normalizeFileName(fileName);
         String key = normalizedFileName + ":" + lineNumber;
-        if (state.isReplayMode()) {
+        if (state.isHistoryMode()) {
             Breakpoint bp = new Breakpoint(normalizedFileName, lineNumber, null, type, count);
             state.getBreakpoints().put(key, bp);
             return Optional.of(bp);
         }
-        VirtualMachine vm = state.getVm();
-        for (ReferenceType refType : vm.allClasses()) {
+        // Les classes nommées d'après le fichier d'abord ; une classe secondaire du fichier
+        // oblige à lire le fichier source de toutes les classes chargées.
+        Location location = firstLocation(state.getClassIndex().getBySourceName(normalizedFileName), lineNumber);
+        if (location == null) {
+            location = firstLocation(state.getClassIndex().getAllBySourceName(normalizedFileName), lineNumber);
+        }
+        Breakpoint bp = new Breakpoint(normalizedFileName, lineNumber, null, type, count);
+        if (location != null) {
+            bp.setRequest(createRequest(location, bp));
+            state.getBreakpoints().put(key, bp);
+            return Optional.of(bp);
+        }
+        // Aucune classe chargée n'a cette ligne : une classe interne du même fichier
+        // peut encore l'apporter en se chargeant.
+        bp.setPending(true);
+        watchSource(normalizedFileName);
+        state.getBreakpoints().put(key, bp);
+        return Optional.of(bp);
+    }
+    private Location firstLocation(List<ReferenceType> types, int lineNumber) {
+        for (ReferenceType refType : types) {
             try {
-                String sourceName = refType.sourceName();
-                if (sourceName.equals(normalizedFileName) || sourceName.equals(fileName)) {
-                    List<Location> locs = refType.locationsOfLine(lineNumber);
-                    if (!locs.isEmpty()) {
-                        Location loc = locs.get(0);
-                        BreakpointRequest req = vm.eventRequestManager().createBreakpointRequest(loc);
-                        req.enable();
-                        Breakpoint bp = new Breakpoint(normalizedFileName, lineNumber, req, type, count);
-                        state.getBreakpoints().put(key, bp);
-                        return Optional.of(bp);
-                    }
+                List<Location> locs = refType.locationsOfLine(lineNumber);
+                if (!locs.isEmpty()) {
+                    return locs.get(0);
                 }
             } catch (Exception e) {
             }
         }
-        return Optional.empty();
+        return null;
+    }
+    /**
+     * Demande à être prévenu du chargement d'un fichier source : le thread qui charge
+     * la classe est suspendu le temps de poser les breakpoints en attente. Une VM sans
+     * filtre par fichier source suspend toutes les préparations de classes, avec une seule
+     * requête pour tous les fichiers : l'indexation seule ne suspend pas, et la ligne
+     * pourrait s'exécuter avant que le breakpoint soit posé.
+     */
+    private void watchSource(String sourceName) {
+        VirtualMachine vm = state.getVm();
+        boolean filtered = vm.canUseSourceNameFilters();
+        if (!state.getClassIndex().watch(filtered ? sourceName : "*")) {
+            return;
+        }
+        ClassPrepareRequest request = vm.eventRequestManager().createClassPrepareRequest();
+        if (filtered) {
+            request.addSourceNameFilter(sourceName);
+        }
+        request.setSuspendPolicy(EventRequest.SUSPEND_EVENT_THREAD);
+        request.enable();
+    }
+    /**
+     * Pose les breakpoints en attente sur une classe qui vient d'être préparée. Appelé pour
+     * chaque classe de la VM : les méthodes ne sont lues que si un breakpoint de méthode
+     * peut porter sur ce type.
+     */
+    public void resolvePending(ReferenceType refType) {
+        try {
+            resolvePendingLines(refType);
+            if (state.getMethodBreakpoints().isEmpty()) {
+                return;
+            }
+            List<MethodBreakpoint> candidates = new ArrayList<>();
+            for (MethodBreakpoint mbp : state.getMethodBreakpoints().values()) {
+                if (mbp.appliesTo(refType)) {
+                    candidates.add(mbp);
+                }
+            }
+            if (candidates.isEmpty()) {
+                return;
+            }
+            for (Method method : refType.methods()) {
+                for (MethodBreakpoint mbp : candidates) {
+                    if (mbp.matches(method)) {
+                        addMethodRequest(mbp, method);
+                    }
+                }
+            }
+        } catch (ObjectCollectedException | VMDisconnectedException e) {
+        }
+    }
+    private void resolvePendingLines(ReferenceType refType) {
+        if (!hasPendingLines()) {
+            return;
+        }
+        String sourceName;
+        try {
+            sourceName = refType.sourceName();
+        } catch (AbsentInformationException e) {
+            return;
+        }
+        for (Breakpoint bp : state.getBreakpoints().values()) {
+            if (!bp.isPending() || !bp.getFileName().equals(sourceName)) {
+                continue;
+            }
+            try {
+                List<Location> locs = refType.locationsOfLine(bp.getLineNumber());
+                if (!locs.isEmpty()) {
+                    bp.setRequest(createRequest(locs.get(0), bp));
+                    bp.setPending(false);
+                }
+            } catch (AbsentInformationException e) {
+            }
+        }
+    }
+    private boolean hasPendingLines() {
+        for (Breakpoint bp : state.getBreakpoints().values()) {
+            if (bp.isPending()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    /**
+     * Crée la requête d'un breakpoint en direct. Les passages qui ne doivent pas arrêter
+     * le programme (ONCE, ON_COUNT) sont absorbés par un filtre de comptage dans la VM cible.
+     * Les filtres s'appliquent dans l'ordre d'ajout : le comptage vient en dernier pour ne
+     * compter que les passages du thread et de l'instance choisis.
+     */
+    private BreakpointRequest createRequest(Location location, Breakpoint bp) {
+        BreakpointRequest req = state.getVm().eventRequestManager().createBreakpointRequest(location);
+        addFilters(req, bp);
+        int remaining = hitsBeforeStop(bp);
+        if (remaining > 1 || (remaining == 1 && bp.getType() == Breakpoint.BreakpointType.ONCE)) {
+            req.addCountFilter(remaining);
+            req.putProperty(COUNT_FILTER, remaining);
+        }
+        req.putProperty(Breakpoint.class, bp);
+        if (remaining > 0) {
+            req.enable();
+        }
+        return req;
+    }
+    private void addFilters(BreakpointRequest req, Breakpoint bp) {
+        if (bp.getThreadFilter() != null) {
+            req.addThreadFilter(bp.getThreadFilter());
+        }
+        if (bp.getInstanceFilter() != null) {
+            req.addInstanceFilter(bp.getInstanceFilter());
+        }
+    }
+    /** Nombre de passages jusqu'au prochain arrêt, 0 si le breakpoint ne doit plus s'arrêter. */
+    private int hitsBeforeStop(Breakpoint bp) {
+        switch (bp.getType()) {
+            case ONCE:
+                return bp.getHitCount() == 0 ? 1 : 0;
+            case ON_COUNT:
+                return Math.max(1, bp.getTargetCount() - bp.getHitCount());
+            default:
+                return 1;
+        }
+    }
+    /**
+     * Remplace la requête d'un breakpoint après un changement de filtre. La VM ne dit pas
+     * combien de passages un filtre de comptage a déjà absorbés : le décompte d'un ON_COUNT
+     * repart des passages qui ont arrêté le programme, ceux absorbés par l'ancienne requête
+     * sont perdus. Les compter exigerait un événement à chaque passage.
+     */
+    private void replaceRequest(Breakpoint bp) {
+        BreakpointRequest old = bp.getRequest();
+        state.getVm().eventRequestManager().deleteEventRequest(old);
+        bp.setRequest(createRequest(old.location(), bp));
+    }
+    /**
+     * Met à jour le compteur d'un breakpoint dont la requête vient de se déclencher.
+     * Une requête à filtre de comptage expire après son déclenchement : pour ON_COUNT,
+     * elle est remplacée par une requête simple qui s'arrête à chaque passage suivant.
+     */
+    public void recordLiveHit(BreakpointRequest request) {
+        Object property = request.getProperty(Breakpoint.class);
+        if (!(property instanceof Breakpoint)) {
+            return;
+        }
+        Breakpoint bp = (Breakpoint) property;
+        Object counted = request.getProperty(COUNT_FILTER);
+        bp.addHits(counted instanceof Integer ? (Integer) counted : 1);
+        if (counted != null && bp.getType() == Breakpoint.BreakpointType.ON_COUNT) {
+            state.getVm().eventRequestManager().deleteEventRequest(request);
+            bp.setRequest(createRequest(request.location(), bp));
+        }
+    }
+    public Optional<Breakpoint> restrictToThread(String fileName, int lineNumber, String threadName) {
+        Optional<Breakpoint> bp = getBreakpoint(fileName, lineNumber).filter(b -> b.getRequest() != null);
+        if (bp.isPresent()) {
+            ThreadReference thread = state.getVm().allThreads().stream()
+                    .filter(t -> t.name().equals(threadName))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("No thread named " + threadName));
+            bp.get().setThreadFilter(thread);
+            replaceRequest(bp.get());
+        }
+        return bp;
+    }
+    public Optional<Breakpoint> restrictToInstance(String fileName, int lineNumber, String variableName) {
+        Optional<Breakpoint> bp = getBreakpoint(fileName, lineNumber).filter(b -> b.getRequest() != null);
+        if (bp.isPresent()) {
+            if (!state.getVm().canUseInstanceFilters()) {
+                throw new IllegalStateException("Target VM does not support instance filters");
+            }
+            bp.get().setInstanceFilter(findObject(variableName));
+            replaceRequest(bp.get());
+        }
+        return bp;
+    }
+    private ObjectReference findObject(String variableName) {
+        DebugFrame frame = state.getContext() != null ? state.getContext().getCurrentFrame() : null;
+        if (frame == null) {
+            throw new IllegalStateException("No current frame");
+        }
+        if (variableName.equals("this") && frame.getReceiver() != null) {
+            return frame.getReceiver();
+        }
+        for (Variable v : frame.getTemporaries()) {
+            if (v.getName().equals(variableName)) {
+                if (v.getValue() instanceof ObjectReference) {
+                    return (ObjectReference) v.getValue();
+                }
+                throw new IllegalArgumentException(variableName + " is not an object");
+            }
+        }
+        throw new IllegalArgumentException("Variable not found: " + variableName);
+    }
+    /**
+     * Breakpoint d'entrée de méthode, sans MethodEntryRequest : les méthodes sont trouvées
+     * par l'index des noms de méthodes et une BreakpointRequest est posée sur leur première
+     * location. Référence acceptée : {@code [Classe.]methode[(signature)]}, la signature
+     * JNI départageant les surcharges.
+     */
+    public MethodBreakpoint createMethodBreakpoint(String reference) {
+        String[] parts = QueryParser.splitMethodReference(reference);
+        MethodBreakpoint mbp = new MethodBreakpoint(parts[0], parts[1], parts[2]);
+        VirtualMachine vm = state.getVm();
+        for (Method method : state.getClassIndex().getMethodsByName(parts[1], vm::allClasses)) {
+            if (mbp.matches(method)) {
+                addMethodRequest(mbp, method);
+            }
+        }
+        if (parts[0] != null) {
+            watchClass(parts[0]);
+        }
+        state.getMethodBreakpoints().put(reference, mbp);
+        return mbp;
+    }
+    private void addMethodRequest(MethodBreakpoint mbp, Method method) {
+        Location location = method.location();
+        if (location == null || method.isAbstract() || method.isNative()) {
+            return;
+        }
+        for (BreakpointRequest existing : mbp.getRequests()) {
+            if (existing.location().equals(location)) {
+                return;
+            }
+        }
+        BreakpointRequest req = state.getVm().eventRequestManager().createBreakpointRequest(location);
+        req.enable();
+        mbp.addRequest(req);
+    }
+    /**
+     * Sans nom de classe, les classes chargées plus tard ne sont vues que par l'indexation
+     * non suspendante ; avec un nom, le thread qui charge la classe est suspendu le temps
+     * de poser les breakpoints.
+     */
+    private void watchClass(String className) {
+        if (!state.getClassIndex().watch(className)) {
+            return;
+        }
+        ClassPrepareRequest request = state.getVm().eventRequestManager().createClassPrepareRequest();
+        request.addClassFilter(className.contains(".") ? className : "*" + className);
+        request.setSuspendPolicy(EventRequest.SUSPEND_EVENT_THREAD);
+        request.enable();
     }
     public boolean removeBreakpoint(String fileName, int lineNumber) {
         String key = normalizeFileName(fileName) + ":" + lineNumber;
         Breakpoint bp = state.getBreakpoints().remove(key);
         if (bp != null && bp.getRequest() != null) {
-            bp.getRequest().disable();
             state.getVm().eventRequestManager().deleteEventRequest(bp.getRequest());
             return true;
         }
@@ -76,7 +358,6 @@ public class BreakpointManager {
     public void clearAllBreakpoints() {
         for (Breakpoint bp : state.getBreakpoints().values()) {
             if (bp.getRequest() != null) {
-                bp.getRequest().disable();
                 state.getVm().eventRequestManager().deleteEventRequest(bp.getRequest());
             }
         }
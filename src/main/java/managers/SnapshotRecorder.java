@@ -10,8 +10,12 @@ public class SnapshotRecorder {
     public void recordSnapshot(ThreadReference thread) {
         try {
             int stepNumber = state.getExecutionHistory().size();
-            String output = state.getAndResetOutput();
-            ExecutionSnapshot snapshot = new ExecutionSnapshot(stepNumber, thread, output);
+            ExecutionSnapshot previous = state.getExecutionHistory().getSnapshot(stepNumber - 1);
+            int outputStart = previous != null ? previous.getOutputEnd() : 0;
+            ExecutionSnapshot snapshot = new ExecutionSnapshot(stepNumber, thread, state.getOutputLog(),
+                    outputStart, state.getOutputLog().length(), state.getCallSiteIndex(), state.getValueCache(), state.getPrimitiveArrays(),
+                    state.getStackNodes(), state.getVariableNodes(),
+                    state.getCapturePolicy(), state.getSteppedClasses(), previous);
             state.getExecutionHistory().addSnapshot(snapshot);
         } catch (Exception e) {
         }
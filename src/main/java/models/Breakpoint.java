@@ -1,5 +1,9 @@
 package models;
+import com.sun.jdi.ObjectReference;
+import com.sun.jdi.ThreadReference;
 import com.sun.jdi.request.BreakpointRequest;
+import query.EvaluationContext;
+import query.Expression;
 public class Breakpoint {
     private String fileName;
     private int lineNumber;
@@ -7,10 +11,16 @@ public class Breakpoint {
     private BreakpointType type;
     private int hitCount;
     private int targetCount;
+    private String conditionText;
+    private Expression condition;
+    private ThreadReference threadFilter;
+    private ObjectReference instanceFilter;
+    private boolean pending;
     public enum BreakpointType {
         NORMAL,
         ONCE,
-        ON_COUNT
+        ON_COUNT,
+        CONDITIONAL
     }
     public Breakpoint(String fileName, int lineNumber, BreakpointRequest request, BreakpointType type) {
         this(fileName, lineNumber, request, type, 0);
@@ -25,15 +35,37 @@ public class Breakpoint {
         this.targetCount = targetCount;
     }
     public void incrementHitCount() { hitCount++; }
+    /** Passages comptés côté VM par le filtre de comptage, sans événement. */
+    public void addHits(int hits) { hitCount += hits; }
     public int getHitCount() { return hitCount; }
     public int getTargetCount() { return targetCount; }
     public BreakpointType getType() { return type; }
     public BreakpointRequest getRequest() { return request; }
+    public void setRequest(BreakpointRequest request) { this.request = request; }
+    /** Breakpoint en direct dont aucune classe chargée n'a encore la ligne. */
+    public boolean isPending() { return pending; }
+    public void setPending(boolean pending) { this.pending = pending; }
+    public ThreadReference getThreadFilter() { return threadFilter; }
+    public void setThreadFilter(ThreadReference threadFilter) { this.threadFilter = threadFilter; }
+    public ObjectReference getInstanceFilter() { return instanceFilter; }
+    public void setInstanceFilter(ObjectReference instanceFilter) { this.instanceFilter = instanceFilter; }
     public String getFileName() { return fileName; }
     public int getLineNumber() { return lineNumber; }
+    public String getConditionText() { return conditionText; }
+    public boolean hasCondition() { return condition != null; }
+    /** Associe une condition déjà compilée ; {@code null} la retire. */
+    public void setCondition(String conditionText, Expression condition) {
+        this.conditionText = condition != null ? conditionText : null;
+        this.condition = condition;
+    }
+    /** Un pas ne compte comme passage que si la condition est vraie sur ce pas. */
+    public boolean matchesCondition(EvaluationContext context) {
+        return condition == null || condition.test(context);
+    }
     public boolean shouldStop() {
         switch (type) {
             case NORMAL:
+            case CONDITIONAL:
                 return true;
             case ONCE:
                 return hitCount == 0;
@@ -54,6 +86,18 @@ public class Breakpoint {
                 info += " [count: " + hitCount + "/" + targetCount + "]";
                 break;
         }
+        if (conditionText != null) {
+            info += " [if " + conditionText + "]";
+        }
+        if (pending) {
+            info += " [pending]";
+        }
+        if (threadFilter != null) {
+            info += " [thread: " + threadFilter.name() + "]";
+        }
+        if (instanceFilter != null) {
+            info += " [instance: " + instanceFilter.uniqueID() + "]";
+        }
         return info;
     }
 }
@@ -0,0 +1,24 @@
+package models;
+/**
+ * Appel de méthode présent dans le bytecode d'une ligne (instruction invoke*).
+ */
+public class CallSite {
+    private final int lineNumber;
+    private final String className;
+    private final String methodName;
+    private final String descriptor;
+    public CallSite(int lineNumber, String className, String methodName, String descriptor) {
+        this.lineNumber = lineNumber;
+        this.className = className;
+        this.methodName = methodName;
+        this.descriptor = descriptor;
+    }
+    public int getLineNumber() { return lineNumber; }
+    public String getClassName() { return className; }
+    public String getMethodName() { return methodName; }
+    public String getDescriptor() { return descriptor; }
+    @Override
+    public String toString() {
+        return className + "." + methodName + descriptor;
+    }
+}
@@ -0,0 +1,171 @@
+package models;
+import com.sun.jdi.Location;
+import com.sun.jdi.Method;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.VirtualMachine;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+/**
+ * Appels de méthodes par ligne, lus dans le bytecode : les instructions invoke de chaque
+ * plage d'index de la table des lignes, résolues dans le constant pool de la classe.
+ * Le décodage est fait une fois par méthode.
+ */
+public class CallSiteIndex {
+    private static final int INVOKEVIRTUAL = 182;
+    private static final int INVOKEINTERFACE = 185;
+    private static final int TABLESWITCH = 170;
+    private static final int LOOKUPSWITCH = 171;
+    private static final int WIDE = 196;
+    private static final int IINC = 132;
+    private final Map<Method, Map<Integer, List<CallSite>>> sitesByMethod = new HashMap<>();
+    private final Map<ReferenceType, ConstantPool> constantPools = new HashMap<>();
+    public synchronized List<CallSite> getCallSites(Location location) {
+        Map<Integer, List<CallSite>> byLine = sitesByMethod.computeIfAbsent(location.method(), this::decode);
+        List<CallSite> sites = byLine.get(location.lineNumber());
+        return sites != null ? sites : Collections.emptyList();
+    }
+    private Map<Integer, List<CallSite>> decode(Method method) {
+        VirtualMachine vm = method.virtualMachine();
+        if (!vm.canGetBytecodes() || !vm.canGetConstantPool() || method.isNative() || method.isAbstract()) {
+            return Collections.emptyMap();
+        }
+        try {
+            byte[] code = method.bytecodes();
+            ConstantPool pool = constantPools.computeIfAbsent(method.declaringType(), ConstantPool::read);
+            List<Location> lines = new ArrayList<>(method.allLineLocations());
+            lines.sort(Comparator.comparingLong(Location::codeIndex));
+            Map<Integer, List<CallSite>> byLine = new HashMap<>();
+            int pc = 0;
+            int lineIndex = -1;
+            while (pc < code.length) {
+                while (lineIndex + 1 < lines.size() && lines.get(lineIndex + 1).codeIndex() <= pc) {
+                    lineIndex++;
+                }
+                int opcode = code[pc] & 0xff;
+                if (opcode >= INVOKEVIRTUAL && opcode <= INVOKEINTERFACE && lineIndex >= 0) {
+                    CallSite site = pool.methodRef(u2(code, pc + 1), lines.get(lineIndex).lineNumber());
+                    if (site != null) {
+                        byLine.computeIfAbsent(site.getLineNumber(), k -> new ArrayList<>()).add(site);
+                    }
+                }
+                pc += instructionLength(code, pc);
+            }
+            return byLine;
+        } catch (Exception e) {
+            return Collections.emptyMap();
+        }
+    }
+    private static int u2(byte[] code, int offset) {
+        return ((code[offset] & 0xff) << 8) | (code[offset + 1] & 0xff);
+    }
+    private static int s4(byte[] code, int offset) {
+        return ((code[offset] & 0xff) << 24) | ((code[offset + 1] & 0xff) << 16)
+                | ((code[offset + 2] & 0xff) << 8) | (code[offset + 3] & 0xff);
+    }
+    private static int instructionLength(byte[] code, int pc) {
+        int opcode = code[pc] & 0xff;
+        switch (opcode) {
+            case TABLESWITCH: {
+                int base = pc + 4 - (pc & 3);
+                int low = s4(code, base + 4);
+                int high = s4(code, base + 8);
+                return base + 12 + (high - low + 1) * 4 - pc;
+            }
+            case LOOKUPSWITCH: {
+                int base = pc + 4 - (pc & 3);
+                return base + 8 + s4(code, base + 4) * 8 - pc;
+            }
+            case WIDE:
+                return (code[pc + 1] & 0xff) == IINC ? 6 : 4;
+            case 16: case 18: case 21: case 22: case 23: case 24: case 25:
+            case 54: case 55: case 56: case 57: case 58: case 169: case 188:
+                return 2;
+            case 17: case 19: case 20: case IINC: case 178: case 179: case 180: case 181:
+            case 182: case 183: case 184: case 187: case 189: case 192: case 193:
+            case 198: case 199:
+                return 3;
+            case 197:
+                return 4;
+            case 185: case 186: case 200: case 201:
+                return 5;
+            default:
+                if (opcode >= 153 && opcode <= 168) {
+                    return 3;
+                }
+                return 1;
+        }
+    }
+    /**
+     * Entrées du constant pool utiles à la résolution des références de méthodes.
+     */
+    private static class ConstantPool {
+        private final String[] utf8;
+        private final int[] first;
+        private final int[] second;
+        private final int[] tags;
+        ConstantPool(int count) {
+            utf8 = new String[count];
+            first = new int[count];
+            second = new int[count];
+            tags = new int[count];
+        }
+        static ConstantPool read(ReferenceType type) {
+            int count = type.constantPoolCount();
+            ConstantPool pool = new ConstantPool(count);
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(type.constantPool()))) {
+                for (int i = 1; i < count; i++) {
+                    int tag = in.readUnsignedByte();
+                    pool.tags[i] = tag;
+                    switch (tag) {
+                        case 1:
+                            pool.utf8[i] = in.readUTF();
+                            break;
+                        case 7: case 8: case 16: case 19: case 20:
+                            pool.first[i] = in.readUnsignedShort();
+                            break;
+                        case 3: case 4:
+                            in.readInt();
+                            break;
+                        case 5: case 6:
+                            in.readLong();
+                            i++;
+                            break;
+                        case 9: case 10: case 11: case 12: case 17: case 18:
+                            pool.first[i] = in.readUnsignedShort();
+                            pool.second[i] = in.readUnsignedShort();
+                            break;
+                        case 15:
+                            in.readUnsignedByte();
+                            pool.first[i] = in.readUnsignedShort();
+                            break;
+                        default:
+                            throw new IllegalStateException("Unknown constant pool tag " + tag);
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Unreadable constant pool of " + type.name(), e);
+            }
+            return pool;
+        }
+        /** Méthode appelée par une référence Methodref ou InterfaceMethodref ; null pour les constructeurs. */
+        CallSite methodRef(int index, int lineNumber) {
+            if (tags[index] != 10 && tags[index] != 11) {
+                return null;
+            }
+            String owner = utf8[first[first[index]]].replace('/', '.');
+            int nameAndType = second[index];
+            String name = utf8[first[nameAndType]];
+            if (name.startsWith("<")) {
+                return null;
+            }
+            return new CallSite(lineNumber, owner, name, utf8[second[nameAndType]]);
+        }
+    }
+}
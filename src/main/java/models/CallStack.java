@@ -2,19 +2,63 @@ package models;
 import com.sun.jdi.IncompatibleThreadStateException;
 import com.sun.jdi.StackFrame;
 import com.sun.jdi.ThreadReference;
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.List;
+/**
+ * Pile d'appels chargée à la demande : rien n'est lu dans la VM à la construction,
+ * la frame courante est lue seule, la pile complète au premier parcours.
+ * Valable tant que le thread reste suspendu : au-delà, les accès lèvent
+ * une IllegalStateException « frame no longer valid ».
+ */
 public class CallStack {
-    private List<DebugFrame> frames;
-    public CallStack(ThreadReference thread) throws IncompatibleThreadStateException {
-        this.frames = new ArrayList<>();
-        for (StackFrame sf : thread.frames()) {
-            frames.add(new DebugFrame(sf));
-        }
+    private final ThreadReference thread;
+    private final List<DebugFrame> frames = new LazyFrames();
+    private List<StackFrame> stackFrames;
+    private DebugFrame[] debugFrames;
+    private DebugFrame currentFrame;
+    public CallStack(ThreadReference thread) {
+        this.thread = thread;
     }
     public List<DebugFrame> getFrames() { return frames; }
     public DebugFrame getCurrentFrame() {
-        return frames.isEmpty() ? null : frames.get(0);
+        if (currentFrame == null && stackFrames == null) {
+            try {
+                if (thread.frameCount() > 0) {
+                    currentFrame = new DebugFrame(thread.frame(0));
+                }
+            } catch (IncompatibleThreadStateException e) {
+                throw DebugFrame.noLongerValid(e);
+            }
+        }
+        return currentFrame != null ? currentFrame : (frames.isEmpty() ? null : frames.get(0));
+    }
+    private List<StackFrame> stackFrames() {
+        if (stackFrames == null) {
+            try {
+                stackFrames = thread.frames();
+            } catch (IncompatibleThreadStateException e) {
+                throw DebugFrame.noLongerValid(e);
+            }
+            debugFrames = new DebugFrame[stackFrames.size()];
+            if (currentFrame != null && debugFrames.length > 0) {
+                debugFrames[0] = currentFrame;
+            }
+        }
+        return stackFrames;
+    }
+    private class LazyFrames extends AbstractList<DebugFrame> {
+        @Override
+        public DebugFrame get(int index) {
+            List<StackFrame> all = stackFrames();
+            if (debugFrames[index] == null) {
+                debugFrames[index] = new DebugFrame(all.get(index));
+            }
+            return debugFrames[index];
+        }
+        @Override
+        public int size() {
+            return stackFrames().size();
+        }
     }
     @Override
     public String toString() {
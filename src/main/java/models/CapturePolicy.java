@@ -0,0 +1,159 @@
+package models;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+/**
+ * Ce qui est lu du contenu des variables à chaque pas : profondeur et nombre d'enfants par
+ * type ou par paquetage, et budget de temps et d'octets par pas. Quand un pas dépasse la
+ * moitié de son budget, les variables restantes ne sont plus dépliées que d'un niveau ;
+ * au-delà du budget, on ne garde que leur valeur et leur taille.
+ */
+public class CapturePolicy {
+    public static final int DEFAULT_MAX_DEPTH = 3;
+    public static final int DEFAULT_MAX_CHILDREN = 50;
+    public static final long DEFAULT_STEP_NANOS = 500_000_000L;
+    public static final long DEFAULT_STEP_BYTES = 8L << 20;
+    public static final int DEFAULT_PRIMITIVE_ARRAY_LIMIT = 10_000;
+    private final List<Rule> rules = new ArrayList<>();
+    private final Map<String, Rule> rulesByType = new HashMap<>();
+    private Rule defaultRule = new Rule("*", DEFAULT_MAX_DEPTH, DEFAULT_MAX_CHILDREN);
+    private long stepNanos = DEFAULT_STEP_NANOS;
+    private long stepBytes = DEFAULT_STEP_BYTES;
+    private int primitiveArrayLimit = DEFAULT_PRIMITIVE_ARRAY_LIMIT;
+    private final CaptureStats stats = new CaptureStats();
+    private final ValueExtractors extractors = new ValueExtractors();
+    /**
+     * @param pattern nom de type exact ({@code java.util.HashMap}, {@code int[]}),
+     *                paquetage et sous-paquetages ({@code java.util.*}) ou {@code *}
+     * @param maxDepth niveaux dépliés sous une valeur de ce type, 0 pour la taille seule
+     */
+    public synchronized CapturePolicy rule(String pattern, int maxDepth, int maxChildren) {
+        Rule rule = new Rule(pattern, maxDepth, maxChildren);
+        if (pattern.equals("*")) {
+            defaultRule = rule;
+        } else {
+            rules.removeIf(r -> r.pattern.equals(pattern));
+            rules.add(rule);
+        }
+        rulesByType.clear();
+        return this;
+    }
+    /** Valeurs de ce type enregistrées sans leur contenu. */
+    public CapturePolicy sizeOnly(String pattern) {
+        return rule(pattern, 0, 0);
+    }
+    /** Budget d'un pas ; une valeur négative ou nulle le supprime. */
+    public synchronized CapturePolicy budget(long maxNanos, long maxBytes) {
+        this.stepNanos = maxNanos > 0 ? maxNanos : Long.MAX_VALUE;
+        this.stepBytes = maxBytes > 0 ? maxBytes : Long.MAX_VALUE;
+        return this;
+    }
+    /**
+     * Éléments lus d'un tableau de primitifs. Ils sont conservés sous forme compacte et
+     * seules les plages modifiées sont gardées d'un pas à l'autre, d'où une limite bien
+     * plus haute que le nombre d'enfants des autres valeurs.
+     */
+    public synchronized CapturePolicy primitiveArrayLimit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Negative primitive array limit");
+        }
+        this.primitiveArrayLimit = limit;
+        return this;
+    }
+    public synchronized int getPrimitiveArrayLimit() { return primitiveArrayLimit; }
+    /** Règle la plus précise pour ce type : type exact, puis paquetage le plus long. */
+    public synchronized Rule ruleFor(String typeName) {
+        if (typeName == null) {
+            return defaultRule;
+        }
+        Rule cached = rulesByType.get(typeName);
+        if (cached != null) {
+            return cached;
+        }
+        Rule best = defaultRule;
+        int bestLength = -1;
+        for (Rule rule : rules) {
+            int length = rule.matchLength(typeName);
+            if (length > bestLength) {
+                best = rule;
+                bestLength = length;
+            }
+        }
+        rulesByType.put(typeName, best);
+        return best;
+    }
+    public synchronized Step startStep() {
+        return new Step(stepNanos, stepBytes);
+    }
+    public CaptureStats getStats() { return stats; }
+    /** Lecture du contenu logique des collections et des types enregistrés par l'utilisateur. */
+    public ValueExtractors getExtractors() { return extractors; }
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder("Capture policy:\n");
+        for (Rule rule : rules) {
+            sb.append("  ").append(rule).append("\n");
+        }
+        sb.append("  ").append(defaultRule).append("\n");
+        sb.append("  budget per step: ")
+          .append(stepNanos == Long.MAX_VALUE ? "no time limit" : stepNanos / 1_000_000 + " ms").append(", ")
+          .append(stepBytes == Long.MAX_VALUE ? "no size limit" : stepBytes / 1024 + " KB").append("\n");
+        sb.append("  primitive arrays: up to ").append(primitiveArrayLimit).append(" elements\n");
+        return sb.toString();
+    }
+    public static final class Rule {
+        private final String pattern;
+        private final int maxDepth;
+        private final int maxChildren;
+        Rule(String pattern, int maxDepth, int maxChildren) {
+            if (maxDepth < 0 || maxChildren < 0) {
+                throw new IllegalArgumentException("Negative capture limit for " + pattern);
+            }
+            this.pattern = pattern;
+            this.maxDepth = maxDepth;
+            this.maxChildren = maxChildren;
+        }
+        /** Longueur de la correspondance, -1 si la règle ne s'applique pas ; un type exact l'emporte. */
+        int matchLength(String typeName) {
+            if (pattern.endsWith(".*")) {
+                String prefix = pattern.substring(0, pattern.length() - 1);
+                return typeName.startsWith(prefix) ? prefix.length() : -1;
+            }
+            return pattern.equals(typeName) ? Integer.MAX_VALUE : -1;
+        }
+        public String getPattern() { return pattern; }
+        public int getMaxDepth() { return maxDepth; }
+        public int getMaxChildren() { return maxChildren; }
+        @Override
+        public String toString() {
+            return maxDepth == 0 ? pattern + ": size only"
+                    : pattern + ": depth " + maxDepth + ", " + maxChildren + " children";
+        }
+    }
+    /** Consommation d'un pas en cours d'enregistrement. */
+    public static final class Step {
+        private final long start = System.nanoTime();
+        private final long maxNanos;
+        private final long maxBytes;
+        private long bytes;
+        Step(long maxNanos, long maxBytes) {
+            this.maxNanos = maxNanos;
+            this.maxBytes = maxBytes;
+        }
+        public void addBytes(long n) {
+            bytes += n;
+        }
+        /** Profondeur encore permise par le budget : illimitée, un niveau, ou aucun. */
+        public int depthAllowed() {
+            long elapsed = System.nanoTime() - start;
+            if (elapsed >= maxNanos || bytes >= maxBytes) {
+                return 0;
+            }
+            if (elapsed >= maxNanos / 2 || bytes >= maxBytes / 2) {
+                return 1;
+            }
+            return Integer.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package models;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+/**
+ * Coût de l'enregistrement des variables, par type de valeur : nœuds construits, octets
+ * estimés, temps passé hors enfants, et nœuds tronqués faute de budget.
+ */
+public class CaptureStats {
+    private final Map<String, TypeCost> costs = new HashMap<>();
+    public synchronized void record(String typeName, long nanos, long bytes, boolean degraded) {
+        TypeCost cost = costs.computeIfAbsent(typeName, TypeCost::new);
+        cost.nodes++;
+        cost.nanos += nanos;
+        cost.bytes += bytes;
+        if (degraded) {
+            cost.degraded++;
+        }
+    }
+    /** Types du plus coûteux au moins coûteux en temps. */
+    public synchronized List<TypeCost> byCost() {
+        List<TypeCost> sorted = new ArrayList<>();
+        for (TypeCost cost : costs.values()) {
+            sorted.add(cost.copy());
+        }
+        sorted.sort((a, b) -> Long.compare(b.nanos, a.nanos));
+        return sorted;
+    }
+    public synchronized void clear() {
+        costs.clear();
+    }
+    public String report(int limit) {
+        List<TypeCost> sorted = byCost();
+        if (sorted.isEmpty()) {
+            return "No variable captured yet\n";
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-50s %10s %10s %10s %9s%n", "Type", "Nodes", "KB", "ms", "Degraded"));
+        for (int i = 0; i < Math.min(limit, sorted.size()); i++) {
+            TypeCost c = sorted.get(i);
+            sb.append(String.format("%-50s %10d %10d %10.1f %9d%n",
+                    c.typeName, c.nodes, c.bytes / 1024, c.nanos / 1e6, c.degraded));
+        }
+        if (sorted.size() > limit) {
+            sb.append("... (").append(sorted.size() - limit).append(" more types)\n");
+        }
+        return sb.toString();
+    }
+    public static final class TypeCost {
+        private final String typeName;
+        private long nodes;
+        private long nanos;
+        private long bytes;
+        private long degraded;
+        TypeCost(String typeName) {
+            this.typeName = typeName;
+        }
+        private TypeCost copy() {
+            TypeCost copy = new TypeCost(typeName);
+            copy.nodes = nodes;
+            copy.nanos = nanos;
+            copy.bytes = bytes;
+            copy.degraded = degraded;
+            return copy;
+        }
+        public String getTypeName() { return typeName; }
+        public long getNodes() { return nodes; }
+        public long getNanos() { return nanos; }
+        public long getBytes() { return bytes; }
+        public long getDegraded() { return degraded; }
+    }
+}
@@ -0,0 +1,155 @@
+package models;
+import com.sun.jdi.AbsentInformationException;
+import com.sun.jdi.ClassNotPreparedException;
+import com.sun.jdi.Method;
+import com.sun.jdi.ObjectCollectedException;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.VMDisconnectedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+/**
+ * Classes chargées indexées par nom de fichier source, alimenté par les ClassPrepareEvent.
+ * Plusieurs types peuvent partager un même fichier (classes internes). Le fichier source
+ * coûte un aller-retour JDWP par classe : il n'est lu qu'à la recherche, hors du thread des
+ * événements, et d'abord pour les seules classes dont le nom correspond au fichier
+ * ({@code Foo.java} : {@code Foo}, {@code Foo$*}).
+ */
+public class ClassIndex {
+    private final Map<String, List<ReferenceType>> typesBySource = new HashMap<>();
+    private final Set<ReferenceType> known = new HashSet<>();
+    /** Classes dont le fichier source n'a pas été lu, par nom simple de classe englobante. */
+    private final Map<String, List<ReferenceType>> unresolved = new HashMap<>();
+    private final Set<String> watchedSources = new HashSet<>();
+    private Map<String, List<Method>> methodsByName;
+    private final List<ReferenceType> unindexedMethods = new ArrayList<>();
+    /** @return false si la classe était déjà indexée */
+    public synchronized boolean add(ReferenceType type) {
+        if (!known.add(type)) {
+            return false;
+        }
+        unresolved.computeIfAbsent(outerSimpleName(type.name()), k -> new ArrayList<>(1)).add(type);
+        if (methodsByName != null) {
+            unindexedMethods.add(type);
+        }
+        return true;
+    }
+    public synchronized void addAll(List<ReferenceType> types) {
+        for (ReferenceType type : types) {
+            add(type);
+        }
+    }
+    /**
+     * Classes du fichier parmi celles nommées d'après lui ; toutes les classes chargées ne
+     * sont lues que si aucune ne l'est. Une classe secondaire du fichier ({@code class Bar}
+     * dans {@code Foo.java}) peut manquer : voir {@link #getAllBySourceName}.
+     */
+    public synchronized List<ReferenceType> getBySourceName(String sourceName) {
+        List<ReferenceType> candidates = unresolved.remove(sourceName.endsWith(".java")
+                ? sourceName.substring(0, sourceName.length() - ".java".length()) : sourceName);
+        if (candidates != null) {
+            resolveSources(candidates);
+        }
+        List<ReferenceType> types = typesBySource.get(sourceName);
+        return types != null ? new ArrayList<>(types) : getAllBySourceName(sourceName);
+    }
+    /**
+     * Toutes les classes chargées du fichier. Si des classes nommées d'après lui sont connues,
+     * seules celles de leurs paquetages sont lues, une classe secondaire partageant le
+     * paquetage de son fichier ; sinon toutes les classes pas encore résolues.
+     */
+    public synchronized List<ReferenceType> getAllBySourceName(String sourceName) {
+        Set<String> packages = new HashSet<>();
+        for (ReferenceType type : typesBySource.getOrDefault(sourceName, Collections.emptyList())) {
+            packages.add(packageOf(type.name()));
+        }
+        for (Iterator<List<ReferenceType>> buckets = unresolved.values().iterator(); buckets.hasNext(); ) {
+            List<ReferenceType> bucket = buckets.next();
+            List<ReferenceType> pending = new ArrayList<>();
+            for (Iterator<ReferenceType> types = bucket.iterator(); types.hasNext(); ) {
+                ReferenceType type = types.next();
+                if (packages.isEmpty() || packages.contains(packageOf(type.name()))) {
+                    pending.add(type);
+                    types.remove();
+                }
+            }
+            if (bucket.isEmpty()) {
+                buckets.remove();
+            }
+            if (!resolveSources(pending)) {
+                break;
+            }
+        }
+        List<ReferenceType> types = typesBySource.get(sourceName);
+        return types != null ? new ArrayList<>(types) : Collections.emptyList();
+    }
+    /**
+     * Méthodes par nom. L'index n'est construit qu'au premier breakpoint de méthode,
+     * à partir des classes déjà chargées ; celles ajoutées ensuite sont indexées à la
+     * recherche suivante, pas sur le thread des événements.
+     */
+    public synchronized List<Method> getMethodsByName(String name, Supplier<List<ReferenceType>> loadedClasses) {
+        if (methodsByName == null) {
+            methodsByName = new HashMap<>();
+            for (ReferenceType type : loadedClasses.get()) {
+                indexMethods(type);
+            }
+        }
+        for (ReferenceType type : unindexedMethods) {
+            indexMethods(type);
+        }
+        unindexedMethods.clear();
+        List<Method> methods = methodsByName.get(name);
+        return methods != null ? new ArrayList<>(methods) : Collections.emptyList();
+    }
+    /**
+     * Lit le fichier source de classes pas encore résolues. Les préparations arrivent sans
+     * suspendre la VM : la classe peut avoir été déchargée entre-temps ; elle est alors ignorée.
+     * @return false si la VM est terminée
+     */
+    private boolean resolveSources(List<ReferenceType> pending) {
+        for (ReferenceType type : pending) {
+            try {
+                typesBySource.computeIfAbsent(type.sourceName(), k -> new ArrayList<>(1)).add(type);
+            } catch (AbsentInformationException | ObjectCollectedException e) {
+            } catch (VMDisconnectedException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+    private static String packageOf(String typeName) {
+        int dot = typeName.lastIndexOf('.');
+        return dot > 0 ? typeName.substring(0, dot) : "";
+    }
+    /** {@code a.b.Foo$Inner} : {@code Foo}. Le nom du type est connu sans aller-retour. */
+    static String outerSimpleName(String typeName) {
+        String simple = typeName.substring(typeName.lastIndexOf('.') + 1);
+        int nested = simple.indexOf('$');
+        return nested > 0 ? simple.substring(0, nested) : simple;
+    }
+    private void indexMethods(ReferenceType type) {
+        List<Method> methods;
+        try {
+            methods = type.methods();
+        } catch (ClassNotPreparedException | ObjectCollectedException | VMDisconnectedException e) {
+            return;
+        }
+        for (Method method : methods) {
+            List<Method> sameName = methodsByName.computeIfAbsent(method.name(), k -> new ArrayList<>(1));
+            if (!sameName.contains(method)) {
+                sameName.add(method);
+            }
+        }
+    }
+    /** @return true si le fichier ou la classe n'était pas encore surveillé */
+    public synchronized boolean watch(String sourceName) {
+        return watchedSources.add(sourceName);
+    }
+}
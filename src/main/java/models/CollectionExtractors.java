@@ -0,0 +1,366 @@
+package models;
+import com.sun.jdi.ArrayReference;
+import com.sun.jdi.ArrayType;
+import com.sun.jdi.Field;
+import com.sun.jdi.IntegerValue;
+import com.sun.jdi.ObjectReference;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.Value;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+/**
+ * Extracteurs fournis : tableaux et collections du JDK, lus dans leur stockage interne.
+ * Les champs de chaque classe sont résolus une fois et lus ensemble en un seul aller-retour ;
+ * les éléments d'un tableau de stockage sont lus par plage.
+ */
+final class CollectionExtractors {
+    private CollectionExtractors() {
+    }
+    /** @param owner nomme les entrées des tables par leur clé, voir {@link ValueExtractors#describe} */
+    static List<ValueExtractor> builtins(ValueExtractors owner) {
+        List<ValueExtractor> builtins = new ArrayList<>();
+        builtins.add(new ArrayExtractor());
+        builtins.add(new ArrayListExtractor("java.util.ArrayList", "size"));
+        builtins.add(new ArrayListExtractor("java.util.Vector", "elementCount"));
+        builtins.add(new LinkedListExtractor());
+        builtins.add(new ArrayDequeExtractor());
+        // Avant HashMap, dont LinkedHashMap hérite : l'ordre d'itération est celui de la liste chaînée
+        LinkedHashMapExtractor linkedHashMap = new LinkedHashMapExtractor(owner);
+        builtins.add(linkedHashMap);
+        HashMapExtractor hashMap = new HashMapExtractor(owner);
+        builtins.add(hashMap);
+        builtins.add(new HashSetExtractor(hashMap, linkedHashMap));
+        TreeMapExtractor treeMap = new TreeMapExtractor(owner);
+        builtins.add(treeMap);
+        builtins.add(new TreeSetExtractor(treeMap));
+        return builtins;
+    }
+    /** Champs nommés d'une classe du débogué, résolus une fois par type. */
+    static final class FieldHandles {
+        private final String[] names;
+        private final Map<ReferenceType, List<Field>> byType = new HashMap<>();
+        FieldHandles(String... names) {
+            this.names = names;
+        }
+        synchronized List<Field> of(ReferenceType type) {
+            List<Field> fields = byType.get(type);
+            if (fields == null) {
+                fields = new ArrayList<>(names.length);
+                for (String name : names) {
+                    Field field = type.fieldByName(name);
+                    if (field == null) {
+                        throw new IllegalStateException(type.name() + " has no field " + name);
+                    }
+                    fields.add(field);
+                }
+                byType.put(type, fields);
+            }
+            return fields;
+        }
+        /** Valeurs de tous les champs, dans l'ordre des noms. */
+        Value[] read(ObjectReference obj) {
+            List<Field> fields = of(obj.referenceType());
+            Map<Field, Value> values = obj.getValues(fields);
+            Value[] result = new Value[fields.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = values.get(fields.get(i));
+            }
+            return result;
+        }
+        Value read(ObjectReference obj, int index) {
+            return obj.getValue(of(obj.referenceType()).get(index));
+        }
+    }
+    private static int intValue(Value value) {
+        return value instanceof IntegerValue ? ((IntegerValue) value).value() : -1;
+    }
+    private static List<ValueExtractor.Element> indexed(List<Value> values, int from) {
+        List<ValueExtractor.Element> elements = new ArrayList<>(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            elements.add(new ValueExtractor.Element("[" + (from + i) + "]", values.get(i)));
+        }
+        return elements;
+    }
+    static final class ArrayExtractor implements ValueExtractor {
+        @Override
+        public boolean appliesTo(ReferenceType type) {
+            return type instanceof ArrayType;
+        }
+        @Override
+        public int size(ObjectReference value) {
+            return ((ArrayReference) value).length();
+        }
+        @Override
+        public List<Element> elements(ObjectReference value, int max) {
+            ArrayReference array = (ArrayReference) value;
+            int count = Math.min(array.length(), max);
+            return count > 0 ? indexed(array.getValues(0, count), 0) : Collections.emptyList();
+        }
+    }
+    /** ArrayList et Vector : tableau {@code elementData} rempli jusqu'au champ de taille. */
+    static final class ArrayListExtractor implements ValueExtractor {
+        private final String className;
+        private final FieldHandles fields;
+        ArrayListExtractor(String className, String sizeField) {
+            this.className = className;
+            this.fields = new FieldHandles(sizeField, "elementData");
+        }
+        @Override
+        public boolean appliesTo(ReferenceType type) {
+            return ValueExtractors.isSubclassOf(type, className);
+        }
+        @Override
+        public int size(ObjectReference value) {
+            return intValue(fields.read(value, 0));
+        }
+        @Override
+        public List<Element> elements(ObjectReference value, int max) {
+            Value[] values = fields.read(value);
+            ArrayReference data = (ArrayReference) values[1];
+            int count = data != null ? Math.min(Math.min(intValue(values[0]), data.length()), max) : 0;
+            return count > 0 ? indexed(data.getValues(0, count), 0) : Collections.emptyList();
+        }
+    }
+    static final class LinkedListExtractor implements ValueExtractor {
+        private final FieldHandles fields = new FieldHandles("size", "first");
+        private final FieldHandles node = new FieldHandles("item", "next");
+        @Override
+        public boolean appliesTo(ReferenceType type) {
+            return ValueExtractors.isSubclassOf(type, "java.util.LinkedList");
+        }
+        @Override
+        public int size(ObjectReference value) {
+            return intValue(fields.read(value, 0));
+        }
+        @Override
+        public List<Element> elements(ObjectReference value, int max) {
+            List<Element> elements = new ArrayList<>();
+            ObjectReference current = (ObjectReference) fields.read(value, 1);
+            while (current != null && elements.size() < max) {
+                Value[] values = node.read(current);
+                elements.add(new Element("[" + elements.size() + "]", values[0]));
+                current = (ObjectReference) values[1];
+            }
+            return elements;
+        }
+    }
+    /** Tableau circulaire {@code elements} entre {@code head} et {@code tail}. */
+    static final class ArrayDequeExtractor implements ValueExtractor {
+        private final FieldHandles fields = new FieldHandles("elements", "head", "tail");
+        @Override
+        public boolean appliesTo(ReferenceType type) {
+            return ValueExtractors.isSubclassOf(type, "java.util.ArrayDeque");
+        }
+        @Override
+        public int size(ObjectReference value) {
+            Value[] values = fields.read(value);
+            return size(values);
+        }
+        private static int size(Value[] values) {
+            ArrayReference elements = (ArrayReference) values[0];
+            int length = elements.length();
+            return length == 0 ? 0 : Math.floorMod(intValue(values[2]) - intValue(values[1]), length);
+        }
+        @Override
+        public List<Element> elements(ObjectReference value, int max) {
+            Value[] values = fields.read(value);
+            ArrayReference elements = (ArrayReference) values[0];
+            int head = intValue(values[1]);
+            int count = Math.min(size(values), max);
+            List<Value> read = new ArrayList<>(count);
+            int first = Math.min(count, elements.length() - head);
+            if (first > 0) {
+                read.addAll(elements.getValues(head, first));
+            }
+            if (count > first) {
+                read.addAll(elements.getValues(0, count - first));
+            }
+            return indexed(read, 0);
+        }
+    }
+    /** HashMap et ses sous-classes : table de seaux chaînés par {@code next}. */
+    static final class HashMapExtractor implements ValueExtractor {
+        /** Seaux lus par aller-retour : la table peut être grande et presque vide. */
+        private static final int BUCKET_CHUNK = 256;
+        private final FieldHandles fields = new FieldHandles("size", "table");
+        private final FieldHandles node = new FieldHandles("key", "value", "next");
+        private final ValueExtractors owner;
+        HashMapExtractor(ValueExtractors owner) {
+            this.owner = owner;
+        }
+        @Override
+        public boolean appliesTo(ReferenceType type) {
+            return ValueExtractors.isSubclassOf(type, "java.util.HashMap");
+        }
+        @Override
+        public int size(ObjectReference value) {
+            return intValue(fields.read(value, 0));
+        }
+        @Override
+        public List<Element> elements(ObjectReference value, int max) {
+            return entries(value, max, false);
+        }
+        /** Entrées nommées par leur clé, ou clés seules numérotées. */
+        List<Element> entries(ObjectReference map, int max, boolean keysOnly) {
+            List<Element> elements = new ArrayList<>();
+            ArrayReference table = (ArrayReference) fields.read(map, 1);
+            if (table == null || max <= 0) {
+                return elements;
+            }
+            int length = table.length();
+            for (int from = 0; from < length; from += BUCKET_CHUNK) {
+                for (Value bucket : table.getValues(from, Math.min(BUCKET_CHUNK, length - from))) {
+                    ObjectReference current = (ObjectReference) bucket;
+                    while (current != null) {
+                        Value[] values = node.read(current);
+                        elements.add(keysOnly
+                                ? new Element("[" + elements.size() + "]", values[0])
+                                : new Element("[" + owner.describe(values[0]) + "]", values[1]));
+                        if (elements.size() >= max) {
+                            return elements;
+                        }
+                        current = (ObjectReference) values[2];
+                    }
+                }
+            }
+            return elements;
+        }
+    }
+    /**
+     * LinkedHashMap et ses sous-classes : liste doublement chaînée depuis {@code head}, dans
+     * l'ordre d'insertion ou d'accès selon la table, et non dans l'ordre des seaux.
+     */
+    static final class LinkedHashMapExtractor implements ValueExtractor {
+        private final FieldHandles fields = new FieldHandles("size", "head");
+        private final FieldHandles node = new FieldHandles("key", "value", "after");
+        private final ValueExtractors owner;
+        LinkedHashMapExtractor(ValueExtractors owner) {
+            this.owner = owner;
+        }
+        @Override
+        public boolean appliesTo(ReferenceType type) {
+            return ValueExtractors.isSubclassOf(type, "java.util.LinkedHashMap");
+        }
+        @Override
+        public int size(ObjectReference value) {
+            return intValue(fields.read(value, 0));
+        }
+        @Override
+        public List<Element> elements(ObjectReference value, int max) {
+            return entries(value, max, false);
+        }
+        List<Element> entries(ObjectReference map, int max, boolean keysOnly) {
+            List<Element> elements = new ArrayList<>();
+            ObjectReference current = (ObjectReference) fields.read(map, 1);
+            while (current != null && elements.size() < max) {
+                Value[] values = node.read(current);
+                elements.add(keysOnly
+                        ? new Element("[" + elements.size() + "]", values[0])
+                        : new Element("[" + owner.describe(values[0]) + "]", values[1]));
+                current = (ObjectReference) values[2];
+            }
+            return elements;
+        }
+    }
+    /** HashSet et ses sous-classes : clés de la table {@code map}, chaînée pour un LinkedHashSet. */
+    static final class HashSetExtractor implements ValueExtractor {
+        private final FieldHandles fields = new FieldHandles("map");
+        private final HashMapExtractor map;
+        private final LinkedHashMapExtractor linkedMap;
+        HashSetExtractor(HashMapExtractor map, LinkedHashMapExtractor linkedMap) {
+            this.map = map;
+            this.linkedMap = linkedMap;
+        }
+        @Override
+        public boolean appliesTo(ReferenceType type) {
+            return ValueExtractors.isSubclassOf(type, "java.util.HashSet");
+        }
+        @Override
+        public int size(ObjectReference value) {
+            ObjectReference backing = (ObjectReference) fields.read(value, 0);
+            return backing != null ? map.size(backing) : 0;
+        }
+        @Override
+        public List<Element> elements(ObjectReference value, int max) {
+            ObjectReference backing = (ObjectReference) fields.read(value, 0);
+            if (backing == null) {
+                return Collections.emptyList();
+            }
+            return linkedMap.appliesTo(backing.referenceType())
+                    ? linkedMap.entries(backing, max, true) : map.entries(backing, max, true);
+        }
+    }
+    /** TreeMap : parcours infixe de l'arbre rouge-noir depuis {@code root}. */
+    static final class TreeMapExtractor implements ValueExtractor {
+        private final FieldHandles fields = new FieldHandles("size", "root");
+        private final FieldHandles node = new FieldHandles("key", "value", "left", "right");
+        private final ValueExtractors owner;
+        TreeMapExtractor(ValueExtractors owner) {
+            this.owner = owner;
+        }
+        @Override
+        public boolean appliesTo(ReferenceType type) {
+            return ValueExtractors.isSubclassOf(type, "java.util.TreeMap");
+        }
+        @Override
+        public int size(ObjectReference value) {
+            return intValue(fields.read(value, 0));
+        }
+        @Override
+        public List<Element> elements(ObjectReference value, int max) {
+            return entries(value, max, false);
+        }
+        List<Element> entries(ObjectReference map, int max, boolean keysOnly) {
+            List<Element> elements = new ArrayList<>();
+            Deque<Value[]> path = new ArrayDeque<>();
+            ObjectReference current = (ObjectReference) fields.read(map, 1);
+            while ((current != null || !path.isEmpty()) && elements.size() < max) {
+                while (current != null) {
+                    Value[] values = node.read(current);
+                    path.push(values);
+                    current = (ObjectReference) values[2];
+                }
+                Value[] values = path.pop();
+                elements.add(keysOnly
+                        ? new Element("[" + elements.size() + "]", values[0])
+                        : new Element("[" + owner.describe(values[0]) + "]", values[1]));
+                current = (ObjectReference) values[3];
+            }
+            return elements;
+        }
+    }
+    /** TreeSet adossé à un TreeMap : ses clés. */
+    static final class TreeSetExtractor implements ValueExtractor {
+        private final FieldHandles fields = new FieldHandles("m");
+        private final TreeMapExtractor map;
+        TreeSetExtractor(TreeMapExtractor map) {
+            this.map = map;
+        }
+        @Override
+        public boolean appliesTo(ReferenceType type) {
+            return ValueExtractors.isSubclassOf(type, "java.util.TreeSet");
+        }
+        private ObjectReference backing(ObjectReference value) {
+            ObjectReference backing = (ObjectReference) fields.read(value, 0);
+            if (backing != null && !map.appliesTo(backing.referenceType())) {
+                throw new IllegalStateException("TreeSet backed by " + backing.referenceType().name());
+            }
+            return backing;
+        }
+        @Override
+        public int size(ObjectReference value) {
+            ObjectReference backing = backing(value);
+            return backing != null ? map.size(backing) : 0;
+        }
+        @Override
+        public List<Element> elements(ObjectReference value, int max) {
+            ObjectReference backing = backing(value);
+            return backing != null ? map.entries(backing, max, true) : Collections.emptyList();
+        }
+    }
+}
@@ -7,35 +7,62 @@ public class DebugFrame {
     private Location location;
     private List<Variable> temporaries;
     private ObjectReference receiver;
+    private boolean receiverLoaded;
     private String displayName;
     private String sourceFile;
     private int lineNumber;
-    public DebugFrame(StackFrame frame) throws IncompatibleThreadStateException {
+    /** Les temporaires et le receveur ne sont lus dans la VM qu'au premier accès. */
+    public DebugFrame(StackFrame frame) {
         this.frame = frame;
-        this.location = frame.location();
-        this.temporaries = new ArrayList<>();
-        this.receiver = frame.thisObject();
-        loadTemporaries();
+        try {
+            this.location = frame.location();
+        } catch (InvalidStackFrameException e) {
+            throw noLongerValid(e);
+        }
     }
     public DebugFrame(String displayName, String sourceFile, int lineNumber) {
         this.displayName = displayName;
         this.sourceFile = sourceFile;
         this.lineNumber = lineNumber;
         this.temporaries = new ArrayList<>();
+        this.receiverLoaded = true;
     }
-    private void loadTemporaries() throws IncompatibleThreadStateException {
+    /** Les lectures paresseuses échouent une fois le thread reparti : la frame JDI n'existe plus. */
+    static IllegalStateException noLongerValid(Exception cause) {
+        return new IllegalStateException("Frame no longer valid: the thread has resumed", cause);
+    }
+    private void loadTemporaries() {
+        List<Variable> loaded = new ArrayList<>();
         try {
             for (LocalVariable lv : frame.visibleVariables()) {
                 Value val = frame.getValue(lv);
-                temporaries.add(new Variable(lv.name(), lv.typeName(), val));
+                loaded.add(new Variable(lv.name(), lv.typeName(), val));
             }
         } catch (AbsentInformationException e) {
+        } catch (InvalidStackFrameException e) {
+            throw noLongerValid(e);
         }
+        temporaries = loaded;
     }
     public StackFrame getFrame() { return frame; }
     public Location getLocation() { return location; }
-    public List<Variable> getTemporaries() { return temporaries; }
-    public ObjectReference getReceiver() { return receiver; }
+    public List<Variable> getTemporaries() {
+        if (temporaries == null) {
+            loadTemporaries();
+        }
+        return temporaries;
+    }
+    public ObjectReference getReceiver() {
+        if (!receiverLoaded) {
+            try {
+                receiver = frame.thisObject();
+            } catch (InvalidStackFrameException e) {
+                throw noLongerValid(e);
+            }
+            receiverLoaded = true;
+        }
+        return receiver;
+    }
     @Override
     public String toString() {
         if (location != null) {
@@ -2,22 +2,36 @@ package models;
 import com.sun.jdi.IncompatibleThreadStateException;
 import com.sun.jdi.ThreadReference;
 import com.sun.jdi.VirtualMachine;
-import com.sun.jdi.request.MethodEntryRequest;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 public class DebuggerState {
     private VirtualMachine vm;
     private ExecutionContext context;
     private Map<String, Breakpoint> breakpoints;
-    private Map<String, MethodEntryRequest> methodBreakpoints;
+    private Map<String, MethodBreakpoint> methodBreakpoints;
     private boolean running;
     private ExecutionHistory executionHistory;
-    private boolean replayMode;
-    private boolean recordingMode;
-    private final StringBuilder outputBuffer = new StringBuilder();
-    private String lastCapturedOutput = "";
+    private final ClassIndex classIndex = new ClassIndex();
+    private final CallSiteIndex callSiteIndex = new CallSiteIndex();
+    private final ImmutableValueCache valueCache = new ImmutableValueCache();
+    private final PrimitiveArrayStore arrays = new PrimitiveArrayStore();
+    private final StackNodeTable stackNodes = new StackNodeTable();
+    private final VariableSnapshotTable variableNodes = new VariableSnapshotTable();
+    private final CapturePolicy capturePolicy;
+    private final Set<String> steppedClasses = ConcurrentHashMap.newKeySet();
+    private volatile boolean replayMode;
+    private volatile boolean recordingMode;
+    private volatile boolean browsingWhileRecording;
+    private final OutputLog outputLog = new OutputLog();
     public DebuggerState(VirtualMachine vm) {
+        this(vm, new CapturePolicy());
+    }
+    public DebuggerState(VirtualMachine vm, CapturePolicy capturePolicy) {
         this.vm = vm;
+        this.capturePolicy = capturePolicy;
+        capturePolicy.getExtractors().useValueCache(valueCache);
         this.breakpoints = new HashMap<>();
         this.methodBreakpoints = new HashMap<>();
         this.running = true;
@@ -31,27 +45,35 @@ public class DebuggerState {
     public VirtualMachine getVm() { return vm; }
     public ExecutionContext getContext() { return context; }
     public Map<String, Breakpoint> getBreakpoints() { return breakpoints; }
-    public Map<String, MethodEntryRequest> getMethodBreakpoints() { return methodBreakpoints; }
+    public Map<String, MethodBreakpoint> getMethodBreakpoints() { return methodBreakpoints; }
     public boolean isRunning() { return running; }
     public void setRunning(boolean running) { this.running = running; }
     public ExecutionHistory getExecutionHistory() { return executionHistory; }
+    public ClassIndex getClassIndex() { return classIndex; }
+    public CallSiteIndex getCallSiteIndex() { return callSiteIndex; }
+    public ImmutableValueCache getValueCache() { return valueCache; }
+    public PrimitiveArrayStore getPrimitiveArrays() { return arrays; }
+    public StackNodeTable getStackNodes() { return stackNodes; }
+    public VariableSnapshotTable getVariableNodes() { return variableNodes; }
+    public CapturePolicy getCapturePolicy() { return capturePolicy; }
+    /** Classes où l'enregistreur demande un pas à chaque ligne ; les autres s'exécutent sans être vues. */
+    public Set<String> getSteppedClasses() { return steppedClasses; }
     public boolean isReplayMode() { return replayMode; }
     public void setReplayMode(boolean replayMode) { this.replayMode = replayMode; }
     public boolean isRecordingMode() { return recordingMode; }
     public void setRecordingMode(boolean recordingMode) { this.recordingMode = recordingMode; }
+    /**
+     * Navigation dans les pas déjà publiés pendant que l'enregistrement continue : l'historique
+     * n'est pas complet, le replay n'a pas commencé et la VM n'est pas pilotée par l'utilisateur.
+     */
+    public boolean isBrowsingWhileRecording() { return browsingWhileRecording; }
+    public void setBrowsingWhileRecording(boolean browsing) { this.browsingWhileRecording = browsing; }
+    /** Vrai quand les commandes lisent l'historique enregistré plutôt que la VM : replay ou navigation pendant l'enregistrement. */
+    public boolean isHistoryMode() { return replayMode || browsingWhileRecording; }
 
     public void appendOutput(String text) {
-        outputBuffer.append(text);
-    }
-
-    public String getAndResetOutput() {
-        String output = outputBuffer.toString();
-        lastCapturedOutput = output;
-        outputBuffer.setLength(0);
-        return output;
+        outputLog.append(text);
     }
 
-    public String getLastCapturedOutput() {
-        return lastCapturedOutput;
-    }
+    public OutputLog getOutputLog() { return outputLog; }
 }
@@ -4,24 +4,24 @@ import com.sun.jdi.ThreadReference;
 public class ExecutionContext {
     private ThreadReference thread;
     private CallStack callStack;
-    private DebugFrame currentFrame;
     private MethodInfo currentMethod;
     public ExecutionContext(ThreadReference thread) throws IncompatibleThreadStateException {
         this.thread = thread;
         refresh();
     }
+    /** Oublie tout ce qui a été lu : la pile sera relue au prochain accès. */
     public void refresh() throws IncompatibleThreadStateException {
         this.callStack = new CallStack(thread);
-        this.currentFrame = callStack.getCurrentFrame();
-        if (currentFrame != null) {
-            this.currentMethod = new MethodInfo(
-                    currentFrame.getLocation().method(),
-                    currentFrame.getFrame()
-            );
-        }
+        this.currentMethod = null;
     }
     public ThreadReference getThread() { return thread; }
     public CallStack getCallStack() { return callStack; }
-    public DebugFrame getCurrentFrame() { return currentFrame; }
-    public MethodInfo getCurrentMethod() { return currentMethod; }
+    public DebugFrame getCurrentFrame() { return callStack.getCurrentFrame(); }
+    public MethodInfo getCurrentMethod() {
+        DebugFrame currentFrame = callStack.getCurrentFrame();
+        if (currentMethod == null && currentFrame != null) {
+            currentMethod = new MethodInfo(currentFrame.getLocation().method(), currentFrame.getFrame());
+        }
+        return currentMethod;
+    }
 }
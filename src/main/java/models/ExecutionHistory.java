@@ -1,86 +1,129 @@
 package models;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+/**
+ * Historique à un seul écrivain (l'enregistreur) et plusieurs lecteurs. Les pas ne sont
+ * jamais modifiés une fois ajoutés : un lecteur lit le nombre publié puis le tableau, et
+ * obtient sans verrou une vue stable jusqu'à ce nombre, même pendant l'enregistrement.
+ */
 public class ExecutionHistory {
-    private final List<ExecutionSnapshot> snapshots;
-    private int currentIndex;
-    private boolean recordingComplete;
+    private volatile ExecutionSnapshot[] snapshots;
+    private volatile int count;
+    private final AtomicInteger currentIndex;
+    private volatile boolean recordingComplete;
+    private final TraceIndex traceIndex = new TraceIndex();
     public ExecutionHistory() {
-        this.snapshots = new ArrayList<>();
-        this.currentIndex = -1;
+        this.snapshots = new ExecutionSnapshot[64];
+        this.currentIndex = new AtomicInteger(-1);
         this.recordingComplete = false;
     }
+    /**
+     * Réservé à l'enregistreur. La position courante suit la fin de l'historique tant que
+     * personne ne l'a déplacée ailleurs.
+     */
     public void addSnapshot(ExecutionSnapshot snapshot) {
-        snapshots.add(snapshot);
-        currentIndex = snapshots.size() - 1;
+        int n = count;
+        ExecutionSnapshot[] array = snapshots;
+        if (n == array.length) {
+            array = Arrays.copyOf(array, n * 2);
+        }
+        array[n] = snapshot;
+        snapshots = array;
+        count = n + 1;
+        currentIndex.compareAndSet(n - 1, n);
     }
     public void completeRecording() {
         this.recordingComplete = true;
-        this.currentIndex = 0; 
+        this.currentIndex.set(0);
     }
+    /**
+     * Avance d'un pas depuis la position lue ; si elle a bougé entre-temps (l'enregistreur
+     * la fait suivre la fin), recommence depuis la nouvelle. Faux seulement en fin d'historique.
+     */
     public boolean forward() {
-        if (currentIndex < snapshots.size() - 1) {
-            currentIndex++;
-            return true;
+        while (true) {
+            int index = currentIndex.get();
+            if (index >= count - 1) {
+                return false;
+            }
+            if (currentIndex.compareAndSet(index, index + 1)) {
+                return true;
+            }
         }
-        return false;
     }
     public boolean back() {
-        if (currentIndex > 0) {
-            currentIndex--;
-            return true;
+        while (true) {
+            int index = currentIndex.get();
+            if (index <= 0) {
+                return false;
+            }
+            if (currentIndex.compareAndSet(index, index - 1)) {
+                return true;
+            }
         }
-        return false;
     }
     public boolean goToStep(int stepNumber) {
-        if (stepNumber >= 0 && stepNumber < snapshots.size()) {
-            currentIndex = stepNumber;
+        if (stepNumber >= 0 && stepNumber < count) {
+            currentIndex.set(stepNumber);
             return true;
         }
         return false;
     }
     public void goToStart() {
-        currentIndex = 0;
+        currentIndex.set(0);
     }
     public void goToEnd() {
-        if (!snapshots.isEmpty()) {
-            currentIndex = snapshots.size() - 1;
+        int n = count;
+        if (n > 0) {
+            currentIndex.set(n - 1);
         }
     }
     public ExecutionSnapshot getCurrentSnapshot() {
-        if (currentIndex >= 0 && currentIndex < snapshots.size()) {
-            return snapshots.get(currentIndex);
-        }
-        return null;
+        return getSnapshot(currentIndex.get());
     }
     public ExecutionSnapshot getSnapshot(int index) {
-        if (index >= 0 && index < snapshots.size()) {
-            return snapshots.get(index);
+        int n = count;
+        ExecutionSnapshot[] array = snapshots;
+        if (index >= 0 && index < n) {
+            return array[index];
         }
         return null;
     }
+    /** Vue figée sur les pas publiés à l'appel ; les ajouts suivants n'y apparaissent pas. */
     public List<ExecutionSnapshot> getAllSnapshots() {
-        return Collections.unmodifiableList(snapshots);
+        int n = count;
+        return new SnapshotView(snapshots, n);
+    }
+    /**
+     * Index couvrant au moins les pas de {@code view}. Il peut en couvrir davantage si un autre
+     * lecteur l'a mis à jour plus loin : borner les pas rendus avec {@link TraceIndex#before}.
+     */
+    public TraceIndex getTraceIndex(List<ExecutionSnapshot> view) {
+        traceIndex.update(view);
+        return traceIndex;
     }
     public int getCurrentIndex() {
-        return currentIndex;
+        return currentIndex.get();
     }
     public int size() {
-        return snapshots.size();
+        return count;
     }
     public boolean isEmpty() {
-        return snapshots.isEmpty();
+        return count == 0;
     }
     public boolean isRecordingComplete() {
         return recordingComplete;
     }
     public boolean hasNext() {
-        return currentIndex < snapshots.size() - 1;
+        return currentIndex.get() < count - 1;
     }
     public boolean hasPrevious() {
-        return currentIndex > 0;
+        return currentIndex.get() > 0;
     }
     @Override
     public String toString() {
+        List<ExecutionSnapshot> snapshots = getAllSnapshots();
+        int currentIndex = this.currentIndex.get();
         if (snapshots.isEmpty()) {
             return "No execution history recorded";
         }
@@ -100,4 +143,21 @@ public class ExecutionHistory {
         }
         return sb.toString();
     }
+    private static class SnapshotView extends AbstractList<ExecutionSnapshot> implements RandomAccess {
+        private final ExecutionSnapshot[] array;
+        private final int size;
+        SnapshotView(ExecutionSnapshot[] array, int size) {
+            this.array = array;
+            this.size = size;
+        }
+        @Override
+        public ExecutionSnapshot get(int index) {
+            Objects.checkIndex(index, size);
+            return array[index];
+        }
+        @Override
+        public int size() {
+            return size;
+        }
+    }
 }
@@ -7,50 +7,155 @@ public class ExecutionSnapshot {
     private final int lineNumber;
     private final String methodName;
     private final String className;
-    private final List<StackFrameSnapshot> stackFrames;
-    private final Map<String, String> localVariables;
+    private final StackNode stack;
+    /** Variables de toutes les frames, à la suite ; celles de la frame i sont dans [frameStarts[i], frameStarts[i + 1]). */
     private final List<VariableSnapshot> variableSnapshots;
-    private final String outputText;
+    private final int[] frameStarts;
+    private final OutputLog outputLog;
+    private final int outputStart;
+    private final int outputEnd;
+    private final List<CallSite> callSites;
+    private final ImmutableValueCache valueCache;
+    private final PrimitiveArrayStore arrays;
+    private final VariableSnapshotTable variableNodes;
+    private final CapturePolicy capturePolicy;
+    private final CapturePolicy.Step captureStep;
+    private final ValueExtractors extractors;
+    /** Temps passé dans les variables enfants de celle en cours de lecture, exclu de son coût. */
+    private long nestedNanos;
+    private final long threadId;
     public ExecutionSnapshot(int stepNumber, ThreadReference thread) throws IncompatibleThreadStateException, AbsentInformationException {
         this(stepNumber, thread, "");
     }
 
     public ExecutionSnapshot(int stepNumber, ThreadReference thread, String outputText) throws IncompatibleThreadStateException, AbsentInformationException {
-        this.outputText = outputText;
+        this(stepNumber, thread, outputText, null);
+    }
+
+    public ExecutionSnapshot(int stepNumber, ThreadReference thread, String outputText, CallSiteIndex callSiteIndex) throws IncompatibleThreadStateException, AbsentInformationException {
+        this(stepNumber, thread, new OutputLog(outputText), 0, outputText.length(), callSiteIndex, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * @param outputStart offset dans {@code outputLog} de la sortie produite depuis le pas précédent
+     * @param outputEnd offset de fin de la sortie produite jusqu'à ce pas
+     * @param valueCache chaînes et enveloppes déjà lues aux pas précédents, ou null
+     * @param arrays versions des tableaux de primitifs lus aux pas précédents, ou null
+     * @param stackNodes table où interner la pile, partagée par tous les pas d'un enregistrement, ou null
+     * @param variableNodes table où interner les variables, partagée par tous les pas d'un enregistrement, ou null
+     * @param capturePolicy profondeur, nombre d'enfants et budget de lecture des variables, ou null pour les valeurs par défaut
+     * @param steppedClasses classes dont chaque ligne exécutée donne un pas ; seules leurs frames appelantes
+     *                       peuvent être reprises du pas précédent, aucune si null
+     * @param previous pas précédent du même thread, dont les frames appelantes inchangées sont reprises, ou null
+     */
+    public ExecutionSnapshot(int stepNumber, ThreadReference thread, OutputLog outputLog, int outputStart, int outputEnd,
+            CallSiteIndex callSiteIndex, ImmutableValueCache valueCache, PrimitiveArrayStore arrays, StackNodeTable stackNodes,
+            VariableSnapshotTable variableNodes, CapturePolicy capturePolicy, Set<String> steppedClasses,
+            ExecutionSnapshot previous)
+            throws IncompatibleThreadStateException, AbsentInformationException {
+        this.valueCache = valueCache;
+        this.arrays = arrays != null ? arrays : new PrimitiveArrayStore();
+        this.arrays.startStep();
+        this.variableNodes = variableNodes != null ? variableNodes : new VariableSnapshotTable();
+        this.capturePolicy = capturePolicy != null ? capturePolicy : new CapturePolicy();
+        this.captureStep = this.capturePolicy.startStep();
+        this.extractors = this.capturePolicy.getExtractors();
+        this.outputLog = outputLog;
+        this.outputStart = outputStart;
+        this.outputEnd = outputEnd;
         this.stepNumber = stepNumber;
-        StackFrame frame = thread.frame(0);
-        Location location = frame.location();
+        this.threadId = thread.uniqueID();
+        List<StackFrame> frames = thread.frames();
+        Location location = frames.get(0).location();
         this.sourceFile = location.sourceName();
         this.lineNumber = location.lineNumber();
         this.methodName = location.method().name();
         this.className = location.declaringType().name();
-        this.stackFrames = new ArrayList<>();
-        this.variableSnapshots = new ArrayList<>();
-        for (int i = 0; i < thread.frameCount(); i++) {
-            StackFrame sf = thread.frame(i);
-            stackFrames.add(new StackFrameSnapshot(sf, i));
-            captureVariables(sf, i);
+        this.callSites = callSiteIndex != null ? callSiteIndex.getCallSites(location) : Collections.emptyList();
+        int depth = frames.size();
+        StackNodeTable table = stackNodes != null ? stackNodes : new StackNodeTable();
+        StackNode[] before = previous != null && previous.threadId == threadId && previous.stack != null
+                ? previous.stack.fromBottom() : new StackNode[0];
+        StackNode[] nodes = new StackNode[depth];
+        StackNode node = null;
+        boolean samePrefix = true;
+        for (int k = 0; k < depth; k++) {
+            Location frameLocation = frames.get(depth - 1 - k).location();
+            if (samePrefix && k < before.length && before[k].isAt(frameLocation)) {
+                node = before[k];
+            } else {
+                samePrefix = false;
+                node = table.intern(node, frameLocation);
+            }
+            nodes[k] = node;
         }
-        this.localVariables = new HashMap<>();
-        try {
-            Map<LocalVariable, Value> vars = frame.getValues(frame.visibleVariables());
-            for (Map.Entry<LocalVariable, Value> entry : vars.entrySet()) {
-                String name = entry.getKey().name();
-                String value = valueToString(entry.getValue());
-                localVariables.put(name, value);
+        this.stack = node;
+        int reusable = sameCallers(before, nodes);
+        List<VariableSnapshot> variables = new ArrayList<>();
+        this.frameStarts = new int[depth + 1];
+        for (int i = 0; i < depth; i++) {
+            frameStarts[i] = variables.size();
+            int fromBottom = depth - 1 - i;
+            if (i > 0 && fromBottom < reusable && steppedClasses != null
+                    && steppedClasses.contains(nodes[fromBottom].getClassName())) {
+                int previousIndex = previous.getStackDepth() - 1 - fromBottom;
+                List<VariableSnapshot> previousVariables = previous.getVariablesForFrame(previousIndex);
+                if (isUnaffectedByHeap(previousVariables)) {
+                    for (VariableSnapshot vs : previousVariables) {
+                        variables.add(this.variableNodes.withFrameIndex(vs, i));
+                    }
+                    continue;
+                }
             }
-        } catch (AbsentInformationException e) {
+            variables.addAll(captureVariables(frames.get(i), i));
         }
+        frameStarts[depth] = variables.size();
+        this.variableSnapshots = Collections.unmodifiableList(Arrays.asList(variables.toArray(new VariableSnapshot[0])));
     }
-    private void captureVariables(StackFrame frame, int frameIndex) {
+    /**
+     * Nombre de frames, comptées depuis le bas de la pile, arrêtées au même endroit qu'au pas
+     * précédent : même méthode, même instruction d'appel, mêmes appelants. Un même endroit
+     * n'est pas une même invocation : une méthode d'une classe sans pas peut avoir repris la
+     * main, changé ses variables ou être rappelée entre deux pas. Seule une frame d'une classe
+     * où chaque ligne donne un pas est sûrement la même invocation, inchangée, quand elle est
+     * au même endroit sans avoir été au sommet. Une frame qui était au sommet n'est pas comptée.
+     */
+    private static int sameCallers(StackNode[] before, StackNode[] nodes) {
+        int limit = Math.min(before.length - 1, nodes.length);
+        int count = 0;
+        while (count < limit && before[count] == nodes[count]) {
+            count++;
+        }
+        return count;
+    }
+    /**
+     * Une frame appelante ne change pas ses variables locales, mais les objets qu'elles
+     * désignent peuvent l'être par l'appelé : on ne reprend que des valeurs immuables.
+     */
+    private static boolean isUnaffectedByHeap(List<VariableSnapshot> variables) {
+        for (VariableSnapshot vs : variables) {
+            RecordedValue value = vs.getRecordedValue();
+            if (value.getKind() == RecordedValue.Kind.ARRAY) {
+                return false;
+            }
+            if (value.getKind() == RecordedValue.Kind.OBJECT && !ImmutableValueCache.isBoxType(value.getTypeName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+    private List<VariableSnapshot> captureVariables(StackFrame frame, int frameIndex) {
+        List<VariableSnapshot> captured = new ArrayList<>();
         try {
             Location loc = frame.location();
             String framClassName = loc.declaringType().name();
             String framMethodName = loc.method().name();
             List<LocalVariable> vars = frame.visibleVariables();
+            List<LocalVariable> arguments = loc.method().arguments();
+            Map<LocalVariable, Value> values = frame.getValues(vars);
             for (int i = 0; i < vars.size(); i++) {
                 LocalVariable lv = vars.get(i);
-                Value val = frame.getValue(lv);
+                Value val = values.get(lv);
                 VariableSnapshot vs = createVariableSnapshot(
                     lv.name(),
                     lv.typeName(),
@@ -59,179 +164,215 @@ public class ExecutionSnapshot {
                     framClassName,
                     frameIndex,
                     i,
-                    0
+                    Integer.MAX_VALUE,
+                    arguments.indexOf(lv)
                 );
-                variableSnapshots.add(vs);
+                captured.add(vs);
             }
         } catch (AbsentInformationException e) {
         }
+        return captured;
     }
-    private static final int MAX_DEPTH = 3;
-    private static final int MAX_CHILDREN = 50;
     private VariableSnapshot createVariableSnapshot(String name, String type, Value value,
-            String methodName, String className, int frameIndex, int slot, int depth) {
-        VariableSnapshot vs = new VariableSnapshot(
-            name, type, valueToString(value), methodName, className, frameIndex, slot
-        );
-        if (depth >= MAX_DEPTH || value == null) {
-            return vs;
-        }
-        if (value instanceof ArrayReference) {
+            String methodName, String className, int frameIndex, int slot, int levels) {
+        return createVariableSnapshot(name, type, value, methodName, className, frameIndex, slot, levels, -1);
+    }
+    /**
+     * @param levels niveaux que les variables englobantes permettent encore de déplier ;
+     *               la règle du type et le budget du pas peuvent le réduire
+     */
+    private VariableSnapshot createVariableSnapshot(String name, String type, Value value,
+            String methodName, String className, int frameIndex, int slot, int levels, int argumentIndex) {
+        long start = System.nanoTime();
+        long outerNanos = nestedNanos;
+        nestedNanos = 0;
+        RecordedValue recorded = record(value);
+        String costType = recorded.getTypeName() != null ? recorded.getTypeName() : type;
+        CapturePolicy.Rule rule = capturePolicy.ruleFor(costType);
+        int allowed = Math.min(levels, rule.getMaxDepth());
+        int depth = allowed > 0 ? Math.min(allowed, captureStep.depthAllowed()) : 0;
+        boolean degraded = depth < allowed && recorded.isReference();
+        int maxChildren = rule.getMaxChildren();
+        List<VariableSnapshot> children = new ArrayList<>();
+        PrimitiveArrayStore.Version arrayContents = null;
+        if (depth > 0 && value instanceof ArrayReference && PrimitiveArrayStore.componentKind((ArrayReference) value) != null) {
             ArrayReference array = (ArrayReference) value;
-            int count = Math.min(array.length(), MAX_CHILDREN);
-            for (int i = 0; i < count; i++) {
-                Value elementValue = array.getValue(i);
-                String elementType = elementValue != null ? elementValue.type().name() : "null";
-                VariableSnapshot child = createVariableSnapshot(
-                    "[" + i + "]", elementType, elementValue,
-                    methodName, className, frameIndex, slot, depth + 1
-                );
-                vs.addChild(child);
-            }
-            if (array.length() > MAX_CHILDREN) {
-                vs.addChild(new VariableSnapshot(
-                    "...", "more", "(" + (array.length() - MAX_CHILDREN) + " more elements)",
-                    methodName, className, frameIndex, slot
-                ));
-            }
-        } else if (value instanceof ObjectReference && !(value instanceof StringReference)) {
+            int count = Math.min(array.length(), capturePolicy.getPrimitiveArrayLimit());
+            arrayContents = arrays.capture(array, PrimitiveArrayStore.componentKind(array), count);
+        } else if (depth > 0 && value instanceof ObjectReference && !(value instanceof StringReference)) {
             ObjectReference obj = (ObjectReference) value;
-            try {
-                ReferenceType refType = obj.referenceType();
-                List<Field> fields = refType.allFields();
-                int count = 0;
-                for (Field field : fields) {
-                    if (count >= MAX_CHILDREN) {
-                        vs.addChild(new VariableSnapshot(
-                            "...", "more", "(" + (fields.size() - MAX_CHILDREN) + " more fields)",
-                            methodName, className, frameIndex, slot
-                        ));
-                        break;
-                    }
-                    try {
-                        Value fieldValue = obj.getValue(field);
-                        String fieldType = field.typeName();
-                        VariableSnapshot child = createVariableSnapshot(
-                            field.name(), fieldType, fieldValue,
-                            methodName, className, frameIndex, slot, depth + 1
-                        );
-                        vs.addChild(child);
-                        count++;
-                    } catch (Exception e) {
-                        vs.addChild(new VariableSnapshot(
-                            field.name(), field.typeName(), "<inaccessible>",
-                            methodName, className, frameIndex, slot
-                        ));
-                        count++;
-                    }
+            ValueExtractor extractor = extractors.forType(obj.referenceType());
+            List<ValueExtractor.Element> elements = null;
+            if (extractor != null) {
+                try {
+                    elements = extractor.elements(obj, maxChildren);
+                } catch (Exception e) {
+                    // Lecture champ par champ ci-dessous
                 }
-            } catch (Exception e) {
+            }
+            if (elements != null) {
+                addElements(children, elements, recorded.getSize(), methodName, className, frameIndex, slot, depth - 1);
+            } else {
+                addFields(children, obj, maxChildren, methodName, className, frameIndex, slot, depth - 1);
             }
         }
+        VariableSnapshot vs = variableNodes.intern(new VariableSnapshot(
+            name, type, recorded, methodName, className, frameIndex, slot, argumentIndex, children, arrayContents
+        ));
+        long bytes = estimateBytes(recorded, children.size()) + (arrayContents != null ? 8L * arrayContents.length() : 0);
+        captureStep.addBytes(bytes);
+        long elapsed = System.nanoTime() - start;
+        capturePolicy.getStats().record(costType, elapsed - nestedNanos, bytes, degraded);
+        nestedNanos = outerNanos + elapsed;
         return vs;
     }
-    private String valueToString(Value value) {
-        if (value == null) {
-            return "null";
-        }
-        if (value instanceof StringReference) {
-            return "\"" + ((StringReference) value).value() + "\"";
+    private void addElements(List<VariableSnapshot> children, List<ValueExtractor.Element> elements, int total,
+            String methodName, String className, int frameIndex, int slot, int levels) {
+        for (ValueExtractor.Element element : elements) {
+            children.add(createVariableSnapshot(
+                element.getName(), element.getTypeName(), element.getValue(),
+                methodName, className, frameIndex, slot, levels
+            ));
         }
-        if (value instanceof ArrayReference) {
-            ArrayReference array = (ArrayReference) value;
-            return array.referenceType().name() + " (size = " + array.length() + ")";
+        if (total > elements.size()) {
+            children.add(variableNodes.intern(new VariableSnapshot(
+                "...", "more", "(" + (total - elements.size()) + " more elements)",
+                methodName, className, frameIndex, slot
+            )));
         }
-        if (value instanceof ObjectReference) {
-            ObjectReference obj = (ObjectReference) value;
-            String typeName = obj.referenceType().name();
-
-            // Tenter d'obtenir la taille pour les collections
-            if (isCollectionType(typeName)) {
-                int size = getCollectionSize(obj);
-                if (size >= 0) {
-                    return typeName + " (size = " + size + ")";
-                }
-            }
-
-            return typeName + "@" + obj.uniqueID();
-        }
-        return value.toString();
-    }
-
-    /**
-     * Vérifie si le type est une collection connue
-     */
-    private boolean isCollectionType(String typeName) {
-        return typeName.contains("ArrayList") ||
-               typeName.contains("LinkedList") ||
-               typeName.contains("HashSet") ||
-               typeName.contains("TreeSet") ||
-               typeName.contains("Vector") ||
-               typeName.contains("Stack") ||
-               typeName.endsWith("List") ||
-               typeName.endsWith("Set");
     }
-
-    /**
-     * Tente d'obtenir la taille d'une collection en accédant au champ 'size'
-     */
-    private int getCollectionSize(ObjectReference obj) {
+    private void addFields(List<VariableSnapshot> children, ObjectReference obj, int maxChildren,
+            String methodName, String className, int frameIndex, int slot, int levels) {
         try {
             ReferenceType refType = obj.referenceType();
-
-            // Pour ArrayList, LinkedList, HashSet, TreeSet, Vector : chercher le champ 'size'
-            Field sizeField = refType.fieldByName("size");
-            if (sizeField != null) {
-                Value sizeValue = obj.getValue(sizeField);
-                if (sizeValue instanceof IntegerValue) {
-                    return ((IntegerValue) sizeValue).value();
+            boolean box = ImmutableValueCache.isBoxType(refType.name());
+            // Les champs statiques d'une enveloppe sont des constantes (tables de chiffres, TYPE...)
+            List<Field> fields = box ? instanceFields(refType) : refType.allFields();
+            Map<Field, Value> cachedFields = null;
+            if (valueCache != null && box) {
+                try {
+                    cachedFields = valueCache.boxFields(obj, fields);
+                } catch (Exception e) {
+                    // Lecture champ par champ ci-dessous
                 }
             }
-
-            // Pour certaines collections, le champ peut s'appeler différemment
-            // Essayer 'elementCount' (Vector)
-            Field elementCountField = refType.fieldByName("elementCount");
-            if (elementCountField != null) {
-                Value countValue = obj.getValue(elementCountField);
-                if (countValue instanceof IntegerValue) {
-                    return ((IntegerValue) countValue).value();
+            int count = 0;
+            for (Field field : fields) {
+                if (count >= maxChildren) {
+                    children.add(variableNodes.intern(new VariableSnapshot(
+                        "...", "more", "(" + (fields.size() - maxChildren) + " more fields)",
+                        methodName, className, frameIndex, slot
+                    )));
+                    break;
                 }
-            }
-
-            // Pour TreeSet/TreeMap : chercher 'm' qui est le backing map
-            Field backingMapField = refType.fieldByName("m");
-            if (backingMapField != null) {
-                Value mapValue = obj.getValue(backingMapField);
-                if (mapValue instanceof ObjectReference) {
-                    return getCollectionSize((ObjectReference) mapValue);
+                try {
+                    Value fieldValue = cachedFields != null ? cachedFields.get(field) : obj.getValue(field);
+                    children.add(createVariableSnapshot(
+                        field.name(), field.typeName(), fieldValue,
+                        methodName, className, frameIndex, slot, levels
+                    ));
+                    count++;
+                } catch (Exception e) {
+                    children.add(variableNodes.intern(new VariableSnapshot(
+                        field.name(), field.typeName(), "<inaccessible>",
+                        methodName, className, frameIndex, slot
+                    )));
+                    count++;
                 }
             }
-
         } catch (Exception e) {
-            // En cas d'erreur, on retourne -1
         }
-        return -1;
     }
+    private static List<Field> instanceFields(ReferenceType type) {
+        List<Field> fields = new ArrayList<>();
+        for (Field field : type.allFields()) {
+            if (!field.isStatic()) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+    /** Taille approximative d'un nœud enregistré, pour le budget et le rapport de coût. */
+    private static long estimateBytes(RecordedValue value, int childCount) {
+        String text = value.getText();
+        return 48 + 8L * childCount + (text != null ? 2L * text.length() : 0);
+    }
+    private RecordedValue record(Value value) {
+        if (value == null) {
+            return RecordedValue.NULL;
+        }
+        if (value instanceof StringReference) {
+            StringReference string = (StringReference) value;
+            return valueCache != null ? valueCache.string(string) : RecordedValue.ofString(string.value());
+        }
+        if (value instanceof ArrayReference) {
+            ArrayReference array = (ArrayReference) value;
+            return RecordedValue.ofArray(array.referenceType().name(), array.uniqueID(), array.length());
+        }
+        if (value instanceof ObjectReference) {
+            ObjectReference obj = (ObjectReference) value;
+            ValueExtractor extractor = extractors.forType(obj.referenceType());
+            int size = -1;
+            if (extractor != null) {
+                try {
+                    size = extractor.size(obj);
+                } catch (Exception e) {
+                    // Taille inconnue
+                }
+            }
+            return RecordedValue.ofObject(obj.referenceType().name(), obj.uniqueID(), size);
+        }
+        if (value instanceof BooleanValue) return RecordedValue.ofBoolean(((BooleanValue) value).value());
+        if (value instanceof ByteValue) return RecordedValue.ofByte(((ByteValue) value).value());
+        if (value instanceof CharValue) return RecordedValue.ofChar(((CharValue) value).value());
+        if (value instanceof ShortValue) return RecordedValue.ofShort(((ShortValue) value).value());
+        if (value instanceof IntegerValue) return RecordedValue.ofInt(((IntegerValue) value).value());
+        if (value instanceof LongValue) return RecordedValue.ofLong(((LongValue) value).value());
+        if (value instanceof FloatValue) return RecordedValue.ofFloat(((FloatValue) value).value());
+        if (value instanceof DoubleValue) return RecordedValue.ofDouble(((DoubleValue) value).value());
+        return RecordedValue.ofText(value.toString());
+    }
+    public long getThreadId() { return threadId; }
     public int getStepNumber() { return stepNumber; }
     public String getSourceFile() { return sourceFile; }
     public int getLineNumber() { return lineNumber; }
     public String getMethodName() { return methodName; }
     public String getClassName() { return className; }
-    public List<StackFrameSnapshot> getStackFrames() { return stackFrames; }
-    public Map<String, String> getLocalVariables() { return localVariables; }
+    /** Pile du sommet vers le bas, construite à chaque appel à partir des nœuds partagés. */
+    public List<StackFrameSnapshot> getStackFrames() {
+        return stack != null ? stack.toFrames() : new ArrayList<>();
+    }
+    /** Sommet de la pile internée, null si la pile est vide. */
+    public StackNode getStack() { return stack; }
+    public int getStackDepth() { return stack != null ? stack.getDepth() : 0; }
+    /** Variables de la frame courante, textes construits à l'appel. */
+    public Map<String, String> getLocalVariables() {
+        Map<String, String> locals = new LinkedHashMap<>();
+        for (VariableSnapshot vs : getVariablesForFrame(0)) {
+            locals.put(vs.getName(), vs.getValue());
+        }
+        return locals;
+    }
     public List<VariableSnapshot> getVariableSnapshots() { return variableSnapshots; }
-    public String getOutputText() { return outputText; }
+    /** Sortie produite depuis le pas précédent. */
+    public String getOutputText() { return outputLog.substring(outputStart, outputEnd); }
+    public OutputLog getOutputLog() { return outputLog; }
+    public int getOutputEnd() { return outputEnd; }
+    /** Appels présents dans le bytecode de la ligne courante. */
+    public List<CallSite> getCallSites() { return callSites; }
+    /** Vue en lecture seule sur les variables de la frame, sans copie. */
     public List<VariableSnapshot> getVariablesForFrame(int frameIndex) {
-        List<VariableSnapshot> result = new ArrayList<>();
-        for (VariableSnapshot vs : variableSnapshots) {
-            if (vs.getFrameIndex() == frameIndex) {
-                result.add(vs);
-            }
+        if (frameIndex < 0 || frameIndex >= frameStarts.length - 1) {
+            return Collections.emptyList();
         }
-        return result;
+        return variableSnapshots.subList(frameStarts[frameIndex], frameStarts[frameIndex + 1]);
     }
+    /**
+     * Première variable portant cet identifiant, cherchée dans la seule frame qu'il désigne ;
+     * rien n'est gardé dans le pas, les identifiants étant ceux des nœuds partagés.
+     */
     public VariableSnapshot getVariableById(String uniqueId) {
-        for (VariableSnapshot vs : variableSnapshots) {
+        for (VariableSnapshot vs : getVariablesForFrame(VariableSnapshot.frameIndexOf(uniqueId))) {
             if (vs.getUniqueId().equals(uniqueId)) {
                 return vs;
             }
@@ -241,7 +382,7 @@ public class ExecutionSnapshot {
     @Override
     public String toString() {
         return String.format("Step #%d: %s:%d - %s.%s() [%d frames]",
-                stepNumber, sourceFile, lineNumber, className, methodName, stackFrames.size());
+                stepNumber, sourceFile, lineNumber, className, methodName, getStackDepth());
     }
     public String toDetailedString() {
         StringBuilder sb = new StringBuilder();
@@ -249,38 +390,37 @@ public class ExecutionSnapshot {
         sb.append("Location: ").append(sourceFile).append(":").append(lineNumber).append("\n");
         sb.append("Method: ").append(className).append(".").append(methodName).append("()\n");
         sb.append("\nLocal Variables:\n");
-        if (localVariables.isEmpty()) {
-            sb.append("  (none)\n");
-        } else {
-            for (Map.Entry<String, String> entry : localVariables.entrySet()) {
-                sb.append("  ").append(entry.getKey()).append(" = ").append(entry.getValue()).append("\n");
-            }
-        }
+        appendLocals(sb, "  ");
         sb.append("\nCall Stack:\n");
-        for (StackFrameSnapshot frame : stackFrames) {
+        for (StackFrameSnapshot frame : getStackFrames()) {
             sb.append("  ").append(frame).append("\n");
         }
         return sb.toString();
     }
+    /** Variables de la frame courante, une par ligne, lues dans les nœuds enregistrés. */
+    public void appendLocals(StringBuilder sb, String indent) {
+        List<VariableSnapshot> locals = getVariablesForFrame(0);
+        if (locals.isEmpty()) {
+            sb.append(indent).append("(none)\n");
+        }
+        for (VariableSnapshot vs : locals) {
+            sb.append(indent).append(vs.getName()).append(" = ").append(vs.getValue()).append("\n");
+        }
+    }
     public static class StackFrameSnapshot {
         private final int frameIndex;
         private final String methodName;
+        private final String methodSignature;
         private final String className;
         private final String sourceFile;
         private final int lineNumber;
-        public StackFrameSnapshot(StackFrame frame, int index) {
+        StackFrameSnapshot(StackNode node, int index) {
             this.frameIndex = index;
-            Location loc = frame.location();
-            this.methodName = loc.method().name();
-            this.className = loc.declaringType().name();
-            this.lineNumber = loc.lineNumber();
-            String source;
-            try {
-                source = loc.sourceName();
-            } catch (AbsentInformationException e) {
-                source = "Unknown";
-            }
-            this.sourceFile = source;
+            this.methodName = node.getMethodName();
+            this.methodSignature = node.getMethodSignature();
+            this.className = node.getClassName();
+            this.sourceFile = node.getSourceFile();
+            this.lineNumber = node.getLineNumber();
         }
         @Override
         public String toString() {
@@ -289,6 +429,7 @@ public class ExecutionSnapshot {
         }
         public int getFrameIndex() { return frameIndex; }
         public String getMethodName() { return methodName; }
+        public String getMethodSignature() { return methodSignature; }
         public String getClassName() { return className; }
         public String getSourceFile() { return sourceFile; }
         public int getLineNumber() { return lineNumber; }
@@ -0,0 +1,80 @@
+package models;
+import com.sun.jdi.Field;
+import com.sun.jdi.ObjectReference;
+import com.sun.jdi.StringReference;
+import com.sun.jdi.Value;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+/**
+ * Contenu des objets immuables du débogué (chaînes et types enveloppes), lu une seule fois
+ * par objet. Rien n'est épinglé dans le débogué : JDWP ne réattribue pas l'identifiant d'un
+ * objet, même collecté, tant que le miroir JDI qui le porte n'est pas libéré, et la clé de
+ * chaque entrée est ce miroir. Des chaînes distinctes de même contenu partagent une seule
+ * valeur enregistrée. Le cache est borné ; les entrées les moins récemment lues sont
+ * oubliées, et leurs miroirs libérés avec elles.
+ */
+public class ImmutableValueCache {
+    public static final int DEFAULT_CAPACITY = 10_000;
+    private static final Set<String> BOX_TYPES = Set.of(
+            "java.lang.Boolean", "java.lang.Byte", "java.lang.Character", "java.lang.Short",
+            "java.lang.Integer", "java.lang.Long", "java.lang.Float", "java.lang.Double");
+    private final Map<ObjectReference, RecordedValue> strings;
+    private final Map<String, RecordedValue> stringsByContent;
+    private final Map<ObjectReference, Map<Field, Value>> boxes;
+    public ImmutableValueCache() {
+        this(DEFAULT_CAPACITY);
+    }
+    /** @param capacity nombre maximal de chaînes, de contenus, et d'objets enveloppes, gardés en cache */
+    public ImmutableValueCache(int capacity) {
+        this.strings = new Lru<>(capacity);
+        this.stringsByContent = new Lru<>(capacity);
+        this.boxes = new Lru<>(capacity);
+    }
+    public static boolean isBoxType(String typeName) {
+        return BOX_TYPES.contains(typeName);
+    }
+    public synchronized RecordedValue string(StringReference ref) {
+        RecordedValue cached = strings.get(ref);
+        if (cached == null) {
+            String text = ref.value();
+            cached = stringsByContent.get(text);
+            if (cached == null) {
+                cached = RecordedValue.ofString(text);
+                stringsByContent.put(text, cached);
+            }
+            strings.put(ref, cached);
+        }
+        return cached;
+    }
+    /** Valeurs des champs d'un objet enveloppe, lues en un seul aller-retour la première fois. */
+    public synchronized Map<Field, Value> boxFields(ObjectReference ref, List<Field> fields) {
+        Map<Field, Value> cached = boxes.get(ref);
+        if (cached == null) {
+            cached = ref.getValues(fields);
+            boxes.put(ref, cached);
+        }
+        return cached;
+    }
+    /** Oublie tout, à la fin de l'enregistrement : les valeurs enregistrées n'en dépendent pas. */
+    public synchronized void clear() {
+        strings.clear();
+        stringsByContent.clear();
+        boxes.clear();
+    }
+    public synchronized int size() {
+        return strings.size() + boxes.size();
+    }
+    private static final class Lru<K, V> extends LinkedHashMap<K, V> {
+        private final int capacity;
+        Lru(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > capacity;
+        }
+    }
+}
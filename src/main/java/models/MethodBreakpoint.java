@@ -0,0 +1,67 @@
+package models;
+import com.sun.jdi.Method;
+import com.sun.jdi.ObjectCollectedException;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.VMDisconnectedException;
+import com.sun.jdi.request.BreakpointRequest;
+import java.util.ArrayList;
+import java.util.List;
+/**
+ * Breakpoint sur l'entrée d'une méthode : une BreakpointRequest sur la première
+ * location de chaque méthode correspondante, ajoutée au fil du chargement des classes.
+ */
+public class MethodBreakpoint {
+    private final String className;
+    private final String methodName;
+    private final String signature;
+    private final List<BreakpointRequest> requests = new ArrayList<>();
+    public MethodBreakpoint(String className, String methodName, String signature) {
+        this.className = className;
+        this.methodName = methodName;
+        this.signature = signature;
+    }
+    public boolean matches(Method method) {
+        if (!method.name().equals(methodName)) {
+            return false;
+        }
+        if (signature != null && !method.signature().equals(signature)) {
+            return false;
+        }
+        return appliesTo(method.declaringType());
+    }
+    /**
+     * Vrai si des méthodes de ce type peuvent correspondre. Sans nom de classe, seules les
+     * classes du programme débogué sont retenues, pas celles du JDK qui auraient une
+     * méthode de même nom.
+     */
+    public boolean appliesTo(ReferenceType type) {
+        if (className == null) {
+            return isApplicationType(type);
+        }
+        String typeName = type.name();
+        return typeName.equals(className)
+                || typeName.endsWith("." + className) || typeName.endsWith("$" + className);
+    }
+    /** Classe chargée depuis le classpath : module sans nom, ou à défaut chargeur non amorce. */
+    static boolean isApplicationType(ReferenceType type) {
+        try {
+            if (type.virtualMachine().canGetModuleInfo()) {
+                return type.module().name() == null;
+            }
+            return type.classLoader() != null;
+        } catch (ObjectCollectedException | VMDisconnectedException e) {
+            return false;
+        }
+    }
+    public void addRequest(BreakpointRequest request) { requests.add(request); }
+    public List<BreakpointRequest> getRequests() { return requests; }
+    public String getClassName() { return className; }
+    public String getMethodName() { return methodName; }
+    public String getSignature() { return signature; }
+    @Override
+    public String toString() {
+        String info = (className != null ? className + "." : "") + methodName
+                + (signature != null ? signature : "");
+        return info + (requests.isEmpty() ? " [pending]" : " [" + requests.size() + " location(s)]");
+    }
+}
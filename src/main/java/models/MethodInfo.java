@@ -4,26 +4,35 @@ import java.util.ArrayList;
 import java.util.List;
 public class MethodInfo {
     private Method method;
+    private final StackFrame frame;
     private List<Variable> arguments;
-    public MethodInfo(Method method, StackFrame frame) throws IncompatibleThreadStateException {
+    public MethodInfo(Method method, StackFrame frame) {
         this.method = method;
-        this.arguments = new ArrayList<>();
-        loadArguments(frame);
+        this.frame = frame;
     }
-    private void loadArguments(StackFrame frame) throws IncompatibleThreadStateException {
+    private void loadArguments() {
+        List<Variable> loaded = new ArrayList<>();
         try {
             List<LocalVariable> vars = method.variables();
             for (LocalVariable lv : vars) {
                 if (lv.isArgument()) {
                     Value val = frame.getValue(lv);
-                    arguments.add(new Variable(lv.name(), lv.typeName(), val));
+                    loaded.add(new Variable(lv.name(), lv.typeName(), val));
                 }
             }
         } catch (AbsentInformationException e) {
+        } catch (InvalidStackFrameException e) {
+            throw DebugFrame.noLongerValid(e);
         }
+        arguments = loaded;
     }
     public Method getMethod() { return method; }
-    public List<Variable> getArguments() { return arguments; }
+    public List<Variable> getArguments() {
+        if (arguments == null) {
+            loadArguments();
+        }
+        return arguments;
+    }
     @Override
     public String toString() {
         return method.declaringType().name() + "." + method.name() + method.signature();
@@ -0,0 +1,38 @@
+package models;
+/**
+ * Sortie du débogué (stdout et stderr) en ajout seul. Chaque pas enregistré en retient
+ * un offset de fin : la console d'un pas est le préfixe du journal jusqu'à cet offset.
+ */
+public class OutputLog {
+    private final StringBuilder text = new StringBuilder();
+    public OutputLog() {
+    }
+    public OutputLog(String initial) {
+        text.append(initial);
+    }
+    /** @return l'offset de fin après ajout */
+    public synchronized int append(String s) {
+        text.append(s);
+        return text.length();
+    }
+    public synchronized int length() {
+        return text.length();
+    }
+    public synchronized String substring(int from, int to) {
+        return text.substring(from, to);
+    }
+    /**
+     * Début des {@code lines} dernières lignes précédant {@code end}, en ne parcourant
+     * que ces lignes.
+     */
+    public synchronized int lineStartBefore(int end, int lines) {
+        int pos = end - 1;
+        for (int i = 0; i < lines && pos > 0; i++) {
+            pos--;
+            while (pos >= 0 && text.charAt(pos) != '\n') {
+                pos--;
+            }
+        }
+        return Math.max(0, pos + 1);
+    }
+}
@@ -0,0 +1,251 @@
+package models;
+import com.sun.jdi.*;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+/**
+ * Contenu des tableaux de primitifs du débogué, lu en un seul aller-retour et conservé dans
+ * un vrai tableau Java. D'un pas à l'autre, une nouvelle version ne garde que les plages
+ * modifiées ; une copie complète est refaite toutes les {@link #CHECKPOINT_INTERVAL} versions
+ * pour borner la lecture d'un élément. Seuls les tableaux vus au pas courant ou au précédent
+ * gardent leur dernier contenu pour la comparaison ; les autres repartent d'une copie complète.
+ */
+public class PrimitiveArrayStore {
+    static final int CHECKPOINT_INTERVAL = 16;
+    /** Deux plages modifiées plus proches que cet écart sont fusionnées. */
+    private static final int MERGE_GAP = 8;
+    private Map<Long, Latest> latest = new HashMap<>();
+    private Map<Long, Latest> previousStep = new HashMap<>();
+    private long storedElements;
+    /** Type des éléments d'un tableau de primitifs, null pour un tableau de références. */
+    public static RecordedValue.Kind componentKind(ArrayReference array) {
+        switch (((ArrayType) array.referenceType()).componentTypeName()) {
+            case "boolean": return RecordedValue.Kind.BOOLEAN;
+            case "byte": return RecordedValue.Kind.BYTE;
+            case "char": return RecordedValue.Kind.CHAR;
+            case "short": return RecordedValue.Kind.SHORT;
+            case "int": return RecordedValue.Kind.INT;
+            case "long": return RecordedValue.Kind.LONG;
+            case "float": return RecordedValue.Kind.FLOAT;
+            case "double": return RecordedValue.Kind.DOUBLE;
+            default: return null;
+        }
+    }
+    /** Oublie les tableaux qui n'ont pas été vus au pas qui se termine. */
+    public synchronized void startStep() {
+        previousStep = latest;
+        latest = new HashMap<>();
+    }
+    /** Tableaux dont le dernier contenu est gardé pour la comparaison. */
+    public synchronized int size() {
+        int size = latest.size();
+        for (Long arrayId : previousStep.keySet()) {
+            if (!latest.containsKey(arrayId)) {
+                size++;
+            }
+        }
+        return size;
+    }
+    /**
+     * Version courante des {@code count} premiers éléments ; la version précédente est
+     * rendue telle quelle si rien n'a changé.
+     */
+    public Version capture(ArrayReference array, RecordedValue.Kind kind, int count) {
+        Object contents = count > 0 ? toArray(array.getValues(0, count), kind) : toArray(List.of(), kind);
+        return capture(array.uniqueID(), kind, contents);
+    }
+    /** @param contents tableau Java du type correspondant à {@code kind}, déjà lu */
+    synchronized Version capture(long arrayId, RecordedValue.Kind kind, Object contents) {
+        int count = Array.getLength(contents);
+        Latest previous = latest.get(arrayId);
+        if (previous == null) {
+            previous = previousStep.get(arrayId);
+        }
+        Version version;
+        if (previous == null || previous.version.kind != kind || previous.version.length != count) {
+            version = new Version(kind, count, null, contents, null, null, 0);
+            storedElements += count;
+        } else {
+            List<int[]> ranges = changedRanges(previous.contents, contents, count);
+            if (ranges.isEmpty()) {
+                latest.put(arrayId, previous);
+                return previous.version;
+            }
+            Version parent = previous.version;
+            if (parent.diffs + 1 >= CHECKPOINT_INTERVAL) {
+                version = new Version(kind, count, null, contents, null, null, 0);
+                storedElements += count;
+            } else {
+                int[] starts = new int[ranges.size()];
+                Object[] chunks = new Object[ranges.size()];
+                for (int i = 0; i < starts.length; i++) {
+                    int[] range = ranges.get(i);
+                    starts[i] = range[0];
+                    chunks[i] = copyRange(contents, range[0], range[1]);
+                    storedElements += range[1] - range[0];
+                }
+                version = new Version(kind, count, parent, null, starts, chunks, parent.diffs + 1);
+            }
+        }
+        latest.put(arrayId, new Latest(version, contents));
+        return version;
+    }
+    /** Éléments conservés dans toutes les versions, pour comparer au nombre d'éléments lus. */
+    public synchronized long getStoredElements() {
+        return storedElements;
+    }
+    private static Object toArray(List<Value> values, RecordedValue.Kind kind) {
+        int n = values.size();
+        switch (kind) {
+            case BOOLEAN: {
+                boolean[] a = new boolean[n];
+                for (int i = 0; i < n; i++) a[i] = ((BooleanValue) values.get(i)).value();
+                return a;
+            }
+            case BYTE: {
+                byte[] a = new byte[n];
+                for (int i = 0; i < n; i++) a[i] = ((ByteValue) values.get(i)).value();
+                return a;
+            }
+            case CHAR: {
+                char[] a = new char[n];
+                for (int i = 0; i < n; i++) a[i] = ((CharValue) values.get(i)).value();
+                return a;
+            }
+            case SHORT: {
+                short[] a = new short[n];
+                for (int i = 0; i < n; i++) a[i] = ((ShortValue) values.get(i)).value();
+                return a;
+            }
+            case INT: {
+                int[] a = new int[n];
+                for (int i = 0; i < n; i++) a[i] = ((IntegerValue) values.get(i)).value();
+                return a;
+            }
+            case LONG: {
+                long[] a = new long[n];
+                for (int i = 0; i < n; i++) a[i] = ((LongValue) values.get(i)).value();
+                return a;
+            }
+            case FLOAT: {
+                float[] a = new float[n];
+                for (int i = 0; i < n; i++) a[i] = ((FloatValue) values.get(i)).value();
+                return a;
+            }
+            default: {
+                double[] a = new double[n];
+                for (int i = 0; i < n; i++) a[i] = ((DoubleValue) values.get(i)).value();
+                return a;
+            }
+        }
+    }
+    private static Object copyRange(Object array, int from, int to) {
+        if (array instanceof boolean[]) return Arrays.copyOfRange((boolean[]) array, from, to);
+        if (array instanceof byte[]) return Arrays.copyOfRange((byte[]) array, from, to);
+        if (array instanceof char[]) return Arrays.copyOfRange((char[]) array, from, to);
+        if (array instanceof short[]) return Arrays.copyOfRange((short[]) array, from, to);
+        if (array instanceof int[]) return Arrays.copyOfRange((int[]) array, from, to);
+        if (array instanceof long[]) return Arrays.copyOfRange((long[]) array, from, to);
+        if (array instanceof float[]) return Arrays.copyOfRange((float[]) array, from, to);
+        return Arrays.copyOfRange((double[]) array, from, to);
+    }
+    /** Premier indice dans [from, to) où les deux tableaux diffèrent, -1 sinon. */
+    private static int mismatch(Object a, Object b, int from, int to) {
+        int m;
+        if (a instanceof boolean[]) m = Arrays.mismatch((boolean[]) a, from, to, (boolean[]) b, from, to);
+        else if (a instanceof byte[]) m = Arrays.mismatch((byte[]) a, from, to, (byte[]) b, from, to);
+        else if (a instanceof char[]) m = Arrays.mismatch((char[]) a, from, to, (char[]) b, from, to);
+        else if (a instanceof short[]) m = Arrays.mismatch((short[]) a, from, to, (short[]) b, from, to);
+        else if (a instanceof int[]) m = Arrays.mismatch((int[]) a, from, to, (int[]) b, from, to);
+        else if (a instanceof long[]) m = Arrays.mismatch((long[]) a, from, to, (long[]) b, from, to);
+        else if (a instanceof float[]) m = Arrays.mismatch((float[]) a, from, to, (float[]) b, from, to);
+        else m = Arrays.mismatch((double[]) a, from, to, (double[]) b, from, to);
+        return m < 0 ? -1 : from + m;
+    }
+    /** Plages [début, fin) modifiées, fusionnées quand elles sont proches. */
+    private static List<int[]> changedRanges(Object before, Object after, int count) {
+        List<int[]> ranges = new ArrayList<>();
+        int pos = 0;
+        while (pos < count) {
+            int start = mismatch(before, after, pos, count);
+            if (start < 0) {
+                break;
+            }
+            int end = start + 1;
+            while (end < count) {
+                int same = mismatch(before, after, end, Math.min(count, end + MERGE_GAP));
+                if (same < 0) {
+                    break;
+                }
+                end = same + 1;
+            }
+            ranges.add(new int[] {start, end});
+            pos = end;
+        }
+        return ranges;
+    }
+    private static final class Latest {
+        final Version version;
+        final Object contents;
+        Latest(Version version, Object contents) {
+            this.version = version;
+            this.contents = contents;
+        }
+    }
+    /** Contenu d'un tableau à un pas : copie complète, ou plages modifiées depuis la version parente. */
+    public static final class Version {
+        private final RecordedValue.Kind kind;
+        private final int length;
+        private final Version parent;
+        private final Object full;
+        private final int[] starts;
+        private final Object[] chunks;
+        private final int diffs;
+        private Version(RecordedValue.Kind kind, int length, Version parent, Object full,
+                int[] starts, Object[] chunks, int diffs) {
+            this.kind = kind;
+            this.length = length;
+            this.parent = parent;
+            this.full = full;
+            this.starts = starts;
+            this.chunks = chunks;
+            this.diffs = diffs;
+        }
+        public RecordedValue.Kind getKind() { return kind; }
+        /** Nombre d'éléments lus, au plus la longueur du tableau. */
+        public int length() { return length; }
+        public RecordedValue get(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            for (Version v = this; ; v = v.parent) {
+                if (v.full != null) {
+                    return element(v.full, index);
+                }
+                int r = Arrays.binarySearch(v.starts, index);
+                int candidate = r >= 0 ? r : -r - 2;
+                if (candidate >= 0) {
+                    int offset = index - v.starts[candidate];
+                    if (offset < Array.getLength(v.chunks[candidate])) {
+                        return element(v.chunks[candidate], offset);
+                    }
+                }
+            }
+        }
+        private RecordedValue element(Object array, int i) {
+            switch (kind) {
+                case BOOLEAN: return RecordedValue.ofBoolean(((boolean[]) array)[i]);
+                case BYTE: return RecordedValue.ofByte(((byte[]) array)[i]);
+                case CHAR: return RecordedValue.ofChar(((char[]) array)[i]);
+                case SHORT: return RecordedValue.ofShort(((short[]) array)[i]);
+                case INT: return RecordedValue.ofInt(((int[]) array)[i]);
+                case LONG: return RecordedValue.ofLong(((long[]) array)[i]);
+                case FLOAT: return RecordedValue.ofFloat(((float[]) array)[i]);
+                default: return RecordedValue.ofDouble(((double[]) array)[i]);
+            }
+        }
+    }
+}
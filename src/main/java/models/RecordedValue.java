@@ -0,0 +1,111 @@
+package models;
+import java.util.Objects;
+/**
+ * Valeur enregistrée sous forme typée et compacte : bits bruts pour les primitifs,
+ * identifiant d'objet et nom de type interné pour les références. Le contenu des chaînes
+ * n'est pas interné : il est partagé, dans la limite d'un enregistrement, par
+ * {@link ImmutableValueCache}. Le texte affiché n'est construit que par {@link #toString()}.
+ */
+public final class RecordedValue {
+    public enum Kind { NULL, BOOLEAN, BYTE, CHAR, SHORT, INT, LONG, FLOAT, DOUBLE, STRING, ARRAY, OBJECT, TEXT }
+    public static final RecordedValue NULL = new RecordedValue(Kind.NULL, 0, null, null, -1);
+    private static final RecordedValue TRUE = new RecordedValue(Kind.BOOLEAN, 1, null, null, -1);
+    private static final RecordedValue FALSE = new RecordedValue(Kind.BOOLEAN, 0, null, null, -1);
+    private final Kind kind;
+    private final long bits;
+    private final String typeName;
+    private final String text;
+    private final int size;
+    private RecordedValue(Kind kind, long bits, String typeName, String text, int size) {
+        this.kind = kind;
+        this.bits = bits;
+        this.typeName = typeName;
+        this.text = text;
+        this.size = size;
+    }
+    public static RecordedValue ofBoolean(boolean value) { return value ? TRUE : FALSE; }
+    public static RecordedValue ofByte(byte value) { return new RecordedValue(Kind.BYTE, value, null, null, -1); }
+    public static RecordedValue ofChar(char value) { return new RecordedValue(Kind.CHAR, value, null, null, -1); }
+    public static RecordedValue ofShort(short value) { return new RecordedValue(Kind.SHORT, value, null, null, -1); }
+    public static RecordedValue ofInt(int value) { return new RecordedValue(Kind.INT, value, null, null, -1); }
+    public static RecordedValue ofLong(long value) { return new RecordedValue(Kind.LONG, value, null, null, -1); }
+    public static RecordedValue ofFloat(float value) {
+        return new RecordedValue(Kind.FLOAT, Float.floatToRawIntBits(value), null, null, -1);
+    }
+    public static RecordedValue ofDouble(double value) {
+        return new RecordedValue(Kind.DOUBLE, Double.doubleToRawLongBits(value), null, null, -1);
+    }
+    public static RecordedValue ofString(String value) {
+        return new RecordedValue(Kind.STRING, 0, null, value, -1);
+    }
+    public static RecordedValue ofArray(String typeName, long objectId, int length) {
+        return new RecordedValue(Kind.ARRAY, objectId, typeName.intern(), null, length);
+    }
+    /** @param size taille pour une collection connue, -1 sinon */
+    public static RecordedValue ofObject(String typeName, long objectId, int size) {
+        return new RecordedValue(Kind.OBJECT, objectId, typeName.intern(), null, size);
+    }
+    /** Texte libre : valeur inaccessible, marqueur d'éléments omis... */
+    public static RecordedValue ofText(String text) {
+        return text.equals("null") ? NULL : new RecordedValue(Kind.TEXT, 0, null, text, -1);
+    }
+    public Kind getKind() { return kind; }
+    public boolean isNull() { return kind == Kind.NULL; }
+    public boolean isReference() { return kind == Kind.ARRAY || kind == Kind.OBJECT; }
+    public boolean isIntegral() {
+        return kind == Kind.BYTE || kind == Kind.SHORT || kind == Kind.INT || kind == Kind.LONG;
+    }
+    public boolean isFloating() { return kind == Kind.FLOAT || kind == Kind.DOUBLE; }
+    public long longValue() { return bits; }
+    public double doubleValue() {
+        return kind == Kind.FLOAT ? Float.intBitsToFloat((int) bits) : Double.longBitsToDouble(bits);
+    }
+    public boolean booleanValue() { return bits != 0; }
+    public char charValue() { return (char) bits; }
+    public long getObjectId() { return isReference() ? bits : -1; }
+    public String getTypeName() { return typeName; }
+    /** Contenu d'une chaîne ou d'un texte libre. */
+    public String getText() { return text; }
+    /** Longueur d'un tableau ou taille d'une collection, -1 sinon. */
+    public int getSize() { return size; }
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RecordedValue)) return false;
+        RecordedValue that = (RecordedValue) o;
+        return kind == that.kind && bits == that.bits && size == that.size
+                && Objects.equals(typeName, that.typeName) && Objects.equals(text, that.text);
+    }
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, bits, typeName, text, size);
+    }
+    @Override
+    public String toString() {
+        switch (kind) {
+            case NULL:
+                return "null";
+            case BOOLEAN:
+                return String.valueOf(booleanValue());
+            case CHAR:
+                return String.valueOf(charValue());
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                return String.valueOf(bits);
+            case FLOAT:
+                return String.valueOf(Float.intBitsToFloat((int) bits));
+            case DOUBLE:
+                return String.valueOf(Double.longBitsToDouble(bits));
+            case STRING:
+                return "\"" + text + "\"";
+            case ARRAY:
+                return typeName + " (size = " + size + ")";
+            case OBJECT:
+                return size >= 0 ? typeName + " (size = " + size + ")" : typeName + "@" + bits;
+            default:
+                return text;
+        }
+    }
+}
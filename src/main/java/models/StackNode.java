@@ -0,0 +1,94 @@
+package models;
+import com.sun.jdi.AbsentInformationException;
+import com.sun.jdi.Location;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+/**
+ * Pile d'appels enregistrée sous forme de nœud immuable pointant vers la frame appelante.
+ * Les nœuds sont internés par {@link StackNodeTable} : deux pas dont les piles coïncident
+ * partagent le même nœud, et deux piles de même préfixe partagent ce préfixe.
+ */
+public final class StackNode {
+    private final StackNode parent;
+    private final int depth;
+    private final String className;
+    private final String methodName;
+    private final String methodSignature;
+    private final String sourceFile;
+    private final int lineNumber;
+    private final long codeIndex;
+    private final int hash;
+    StackNode(StackNode parent, Location location) {
+        this.parent = parent;
+        this.depth = parent != null ? parent.depth + 1 : 1;
+        this.className = location.declaringType().name();
+        this.methodName = location.method().name();
+        this.methodSignature = location.method().signature();
+        this.lineNumber = location.lineNumber();
+        this.codeIndex = location.codeIndex();
+        String source;
+        try {
+            source = location.sourceName();
+        } catch (AbsentInformationException e) {
+            source = "Unknown";
+        }
+        this.sourceFile = source;
+        this.hash = Objects.hash(System.identityHashCode(parent), className, methodName, methodSignature, codeIndex);
+    }
+    /** Frame appelante, null pour la frame du bas de la pile. */
+    public StackNode getParent() { return parent; }
+    /** Nombre de frames de la pile, celle-ci comprise. */
+    public int getDepth() { return depth; }
+    public String getClassName() { return className; }
+    public String getMethodName() { return methodName; }
+    public String getMethodSignature() { return methodSignature; }
+    public String getSourceFile() { return sourceFile; }
+    public int getLineNumber() { return lineNumber; }
+    public long getCodeIndex() { return codeIndex; }
+    /** Vrai si {@code location} est la même instruction de la même méthode que ce nœud. */
+    boolean isAt(Location location) {
+        return codeIndex == location.codeIndex()
+                && methodName.equals(location.method().name())
+                && methodSignature.equals(location.method().signature())
+                && className.equals(location.declaringType().name());
+    }
+    /** Frame à {@code index} niveaux sous ce sommet, ou null. */
+    public StackNode frameAt(int index) {
+        StackNode node = this;
+        for (int i = 0; i < index && node != null; i++) {
+            node = node.parent;
+        }
+        return node;
+    }
+    /** Frames du sommet vers le bas, construites à l'appel. */
+    public List<ExecutionSnapshot.StackFrameSnapshot> toFrames() {
+        List<ExecutionSnapshot.StackFrameSnapshot> frames = new ArrayList<>(depth);
+        int index = 0;
+        for (StackNode node = this; node != null; node = node.parent) {
+            frames.add(new ExecutionSnapshot.StackFrameSnapshot(node, index++));
+        }
+        return frames;
+    }
+    /** Nœuds du bas de la pile (indice 0) jusqu'à ce sommet. */
+    StackNode[] fromBottom() {
+        StackNode[] nodes = new StackNode[depth];
+        for (StackNode node = this; node != null; node = node.parent) {
+            nodes[node.depth - 1] = node;
+        }
+        return nodes;
+    }
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StackNode)) return false;
+        StackNode that = (StackNode) o;
+        return parent == that.parent && codeIndex == that.codeIndex
+                && className.equals(that.className) && methodName.equals(that.methodName)
+                && methodSignature.equals(that.methodSignature);
+    }
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
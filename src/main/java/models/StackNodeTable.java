@@ -0,0 +1,20 @@
+package models;
+import com.sun.jdi.Location;
+import java.util.HashMap;
+import java.util.Map;
+/**
+ * Table d'internement des nœuds de pile : la mémoire occupée par les piles d'un
+ * enregistrement est proportionnelle au nombre de piles distinctes, pas au nombre de pas.
+ */
+public class StackNodeTable {
+    private final Map<StackNode, StackNode> nodes = new HashMap<>();
+    /** Nœud canonique de la frame arrêtée à {@code location} et appelée depuis {@code parent}. */
+    public synchronized StackNode intern(StackNode parent, Location location) {
+        StackNode candidate = new StackNode(parent, location);
+        StackNode existing = nodes.putIfAbsent(candidate, candidate);
+        return existing != null ? existing : candidate;
+    }
+    public synchronized int size() {
+        return nodes.size();
+    }
+}
@@ -0,0 +1,121 @@
+package models;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+/**
+ * Index incrémental de l'historique : numéros de pas par ligne, par méthode,
+ * et pas d'entrée dans chaque méthode. Mis à jour à la demande jusqu'à la taille courante.
+ */
+public class TraceIndex {
+    private final Map<String, StepList> stepsByLine = new HashMap<>();
+    private final Map<String, StepList> stepsByMethod = new HashMap<>();
+    private final Map<String, StepList> entriesByMethod = new HashMap<>();
+    private int indexedCount;
+    /** Pile du dernier pas de chaque thread : un pas ne se compare qu'à son propre thread. */
+    private final Map<Long, StackNode> previousStacks = new HashMap<>();
+    public synchronized void update(List<ExecutionSnapshot> snapshots) {
+        int size = snapshots.size();
+        for (int i = indexedCount; i < size; i++) {
+            ExecutionSnapshot snapshot = snapshots.get(i);
+            String methodKey = methodKey(snapshot.getClassName(), snapshot.getMethodName());
+            stepsByLine.computeIfAbsent(lineKey(snapshot.getSourceFile(), snapshot.getLineNumber()),
+                    k -> new StepList()).add(i);
+            stepsByMethod.computeIfAbsent(methodKey, k -> new StepList()).add(i);
+            StackNode stack = snapshot.getStack();
+            if (isEntry(previousStacks.get(snapshot.getThreadId()), stack)) {
+                entriesByMethod.computeIfAbsent(methodKey, k -> new StepList()).add(i);
+            }
+            previousStacks.put(snapshot.getThreadId(), stack);
+        }
+        indexedCount = size;
+    }
+    /**
+     * Le sommet est une nouvelle invocation si la pile a grandi, si la frame du pas
+     * précédent à la même profondeur avait un autre appelant ou une autre méthode (après
+     * {@code a(); b();} le pas suivant la fin de a peut tomber directement dans b), ou si
+     * le sommet est revenu à la première instruction de sa méthode, ou n'a pas bougé : une
+     * boucle d'une classe non enregistrée qui rappelle a donne la même pile à chaque appel.
+     * Un pas de ligne ne s'arrête jamais deux fois de suite au même endroit d'une frame, et
+     * les boucles de a reviennent sur leur condition, après l'instruction 0 ; seul un while
+     * en toute première instruction y revient, et ses tours sont comptés comme des appels.
+     */
+    static boolean isEntry(StackNode before, StackNode top) {
+        if (top == null) {
+            return false;
+        }
+        if (before == null || top.getDepth() > before.getDepth()) {
+            return true;
+        }
+        StackNode same = before.frameAt(before.getDepth() - top.getDepth());
+        return same == top || top.getCodeIndex() == 0
+                || same.getParent() != top.getParent()
+                || !same.getMethodName().equals(top.getMethodName())
+                || !same.getMethodSignature().equals(top.getMethodSignature())
+                || !same.getClassName().equals(top.getClassName());
+    }
+    /** Pas strictement inférieurs à {@code limit}, parmi des pas triés. */
+    public static int[] before(int[] steps, int limit) {
+        int end = Arrays.binarySearch(steps, limit);
+        return Arrays.copyOf(steps, end >= 0 ? end : -end - 1);
+    }
+    public synchronized int[] getStepsAtLine(String sourceFile, int lineNumber) {
+        StepList steps = stepsByLine.get(lineKey(sourceFile, lineNumber));
+        return steps != null ? steps.toArray() : new int[0];
+    }
+    public synchronized int[] getStepsInMethod(String className, String methodName) {
+        return collect(stepsByMethod, className, methodName);
+    }
+    public synchronized int[] getMethodEntries(String className, String methodName) {
+        return collect(entriesByMethod, className, methodName);
+    }
+    public synchronized int getIndexedCount() {
+        return indexedCount;
+    }
+    private int[] collect(Map<String, StepList> index, String className, String methodName) {
+        StepList exact = index.get(methodKey(className, methodName));
+        if (exact != null) {
+            return exact.toArray();
+        }
+        int[] merged = new int[0];
+        for (Map.Entry<String, StepList> entry : index.entrySet()) {
+            if (matchesMethod(entry.getKey(), className, methodName)) {
+                int[] steps = entry.getValue().toArray();
+                int[] next = Arrays.copyOf(merged, merged.length + steps.length);
+                System.arraycopy(steps, 0, next, merged.length, steps.length);
+                merged = next;
+            }
+        }
+        Arrays.sort(merged);
+        return merged;
+    }
+    private boolean matchesMethod(String key, String className, String methodName) {
+        int sep = key.lastIndexOf('#');
+        String keyClass = key.substring(0, sep);
+        String keyMethod = key.substring(sep + 1);
+        if (methodName != null && !keyMethod.equals(methodName)) {
+            return false;
+        }
+        return className == null || keyClass.equals(className)
+                || keyClass.endsWith("." + className) || keyClass.endsWith("$" + className);
+    }
+    private static String lineKey(String sourceFile, int lineNumber) {
+        return sourceFile + ":" + lineNumber;
+    }
+    private static String methodKey(String className, String methodName) {
+        return className + "#" + methodName;
+    }
+    private static class StepList {
+        private int[] steps = new int[8];
+        private int size;
+        void add(int step) {
+            if (size == steps.length) {
+                steps = Arrays.copyOf(steps, size * 2);
+            }
+            steps[size++] = step;
+        }
+        int[] toArray() {
+            return Arrays.copyOf(steps, size);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package models;
+import com.sun.jdi.ObjectReference;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.Value;
+import java.util.List;
+/**
+ * Lecture du contenu logique d'un type du débogué (éléments d'une liste, entrées d'une
+ * table...) à la place de ses champs bruts. Les extracteurs sont enregistrés dans
+ * {@link ValueExtractors} ; ceux de l'utilisateur passent avant ceux fournis.
+ */
+public interface ValueExtractor {
+    /** Vrai si cet extracteur sait lire les valeurs de ce type. */
+    boolean appliesTo(ReferenceType type);
+    /** Nombre d'éléments, -1 s'il est inconnu. */
+    int size(ObjectReference value);
+    /** Au plus {@code max} premiers éléments, dans l'ordre d'itération. */
+    List<Element> elements(ObjectReference value, int max);
+    final class Element {
+        private final String name;
+        private final String typeName;
+        private final Value value;
+        public Element(String name, Value value) {
+            this(name, value != null ? value.type().name() : "null", value);
+        }
+        public Element(String name, String typeName, Value value) {
+            this.name = name;
+            this.typeName = typeName;
+            this.value = value;
+        }
+        public String getName() { return name; }
+        public String getTypeName() { return typeName; }
+        public Value getValue() { return value; }
+    }
+}
@@ -0,0 +1,85 @@
+package models;
+import com.sun.jdi.ClassType;
+import com.sun.jdi.Field;
+import com.sun.jdi.ObjectReference;
+import com.sun.jdi.PrimitiveValue;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.StringReference;
+import com.sun.jdi.Value;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+/**
+ * Extracteurs disponibles, choisis une fois par type du débogué. Les collections courantes
+ * du JDK et les tableaux sont reconnus d'office, voir {@link CollectionExtractors}.
+ */
+public class ValueExtractors {
+    private final List<ValueExtractor> extractors = new ArrayList<>(CollectionExtractors.builtins(this));
+    private final Map<ReferenceType, Optional<ValueExtractor>> byType = new HashMap<>();
+    private volatile ImmutableValueCache valueCache;
+    /** Chaînes et enveloppes déjà lues par l'enregistrement, réutilisées pour nommer les entrées. */
+    public ValueExtractors useValueCache(ImmutableValueCache valueCache) {
+        this.valueCache = valueCache;
+        return this;
+    }
+    /** Ajoute un extracteur, prioritaire sur ceux déjà enregistrés. */
+    public synchronized ValueExtractors register(ValueExtractor extractor) {
+        extractors.add(0, extractor);
+        byType.clear();
+        return this;
+    }
+    /** @return l'extracteur de ce type, ou null pour une lecture champ par champ */
+    public synchronized ValueExtractor forType(ReferenceType type) {
+        Optional<ValueExtractor> found = byType.get(type);
+        if (found == null) {
+            found = Optional.empty();
+            for (ValueExtractor extractor : extractors) {
+                if (extractor.appliesTo(type)) {
+                    found = Optional.of(extractor);
+                    break;
+                }
+            }
+            byType.put(type, found);
+        }
+        return found.orElse(null);
+    }
+    /** Vrai si {@code type} est la classe nommée ou l'une de ses sous-classes. */
+    public static boolean isSubclassOf(ReferenceType type, String className) {
+        for (ReferenceType t = type; t instanceof ClassType; t = ((ClassType) t).superclass()) {
+            if (t.name().equals(className)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    /**
+     * Nom d'élément tiré d'une clé : chaîne entre guillemets, primitif ou enveloppe par sa valeur.
+     * Chaînes et enveloppes passent par le cache de l'enregistrement quand il y en a un.
+     */
+    public String describe(Value key) {
+        if (key == null) {
+            return "null";
+        }
+        ImmutableValueCache cache = valueCache;
+        if (key instanceof StringReference) {
+            StringReference string = (StringReference) key;
+            return "\"" + (cache != null ? cache.string(string).getText() : string.value()) + "\"";
+        }
+        if (key instanceof PrimitiveValue) {
+            return key.toString();
+        }
+        ObjectReference obj = (ObjectReference) key;
+        ReferenceType type = obj.referenceType();
+        if (ImmutableValueCache.isBoxType(type.name())) {
+            Field value = type.fieldByName("value");
+            if (value != null) {
+                // value est le seul champ d'instance d'une enveloppe : l'entrée en cache est la même
+                return String.valueOf(cache != null
+                        ? cache.boxFields(obj, List.of(value)).get(value) : obj.getValue(value));
+            }
+        }
+        return type.name() + "@" + obj.uniqueID();
+    }
+}
@@ -1,19 +1,52 @@
 package models;
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+/**
+ * Variable enregistrée, immuable avec ses enfants : un même nœud peut être partagé par
+ * plusieurs pas, voir {@link VariableSnapshotTable}.
+ */
 public class VariableSnapshot {
     private final String name;
     private final String type;
-    private final String value;
+    private final RecordedValue value;
     private final String methodName;
     private final String className;
     private final int frameIndex;
     private final int slot;
+    private final int argumentIndex;
     private final List<VariableSnapshot> children;
+    private final PrimitiveArrayStore.Version arrayContents;
+    private final int contentHash;
+    /** Identifiant construit au premier appel ; le nœud étant partagé, il l'est aussi. */
+    private String uniqueId;
     public VariableSnapshot(String name, String type, String value,
                            String methodName, String className, int frameIndex, int slot) {
+        this(name, type, value, methodName, className, frameIndex, slot, -1);
+    }
+    public VariableSnapshot(String name, String type, String value,
+                           String methodName, String className, int frameIndex, int slot,
+                           int argumentIndex) {
+        this(name, type, RecordedValue.ofText(value), methodName, className, frameIndex, slot, argumentIndex);
+    }
+    public VariableSnapshot(String name, String type, RecordedValue value,
+                           String methodName, String className, int frameIndex, int slot,
+                           int argumentIndex) {
+        this(name, type, value, methodName, className, frameIndex, slot, argumentIndex, Collections.emptyList());
+    }
+    public VariableSnapshot(String name, String type, RecordedValue value,
+                           String methodName, String className, int frameIndex, int slot,
+                           int argumentIndex, List<VariableSnapshot> children) {
+        this(name, type, value, methodName, className, frameIndex, slot, argumentIndex, children, null);
+    }
+    /**
+     * @param arrayContents éléments d'un tableau de primitifs, présentés comme enfants à la
+     *                      demande ; null pour les autres variables
+     */
+    public VariableSnapshot(String name, String type, RecordedValue value,
+                           String methodName, String className, int frameIndex, int slot,
+                           int argumentIndex, List<VariableSnapshot> children, PrimitiveArrayStore.Version arrayContents) {
         this.name = name;
         this.type = type;
         this.value = value;
@@ -21,27 +54,83 @@ public class VariableSnapshot {
         this.className = className;
         this.frameIndex = frameIndex;
         this.slot = slot;
-        this.children = new ArrayList<>();
-    }
-    public void addChild(VariableSnapshot child) {
-        children.add(child);
+        this.argumentIndex = argumentIndex;
+        this.arrayContents = arrayContents;
+        this.children = arrayContents != null ? new ArrayElements()
+                : children.isEmpty() ? Collections.emptyList() : List.copyOf(children);
+        int h = Objects.hash(name, type, value, methodName, className, frameIndex, slot, argumentIndex)
+                + System.identityHashCode(arrayContents);
+        if (arrayContents == null) {
+            for (VariableSnapshot child : this.children) {
+                h = 31 * h + System.identityHashCode(child);
+            }
+        }
+        this.contentHash = h;
     }
     public List<VariableSnapshot> getChildren() {
-        return Collections.unmodifiableList(children);
+        return children;
     }
     public boolean hasChildren() {
         return !children.isEmpty();
     }
+    /** Éléments d'un tableau de primitifs, ou null. */
+    public PrimitiveArrayStore.Version getArrayContents() { return arrayContents; }
     public String getUniqueId() {
-        return String.format("%s.%s#%d:%s@%d", className, methodName, frameIndex, name, slot);
+        String id = uniqueId;
+        if (id == null) {
+            id = className + "." + methodName + "#" + frameIndex + ":" + name + "@" + slot;
+            uniqueId = id;
+        }
+        return id;
+    }
+    /** Frame désignée par un identifiant rendu par {@link #getUniqueId}, -1 s'il n'en vient pas. */
+    static int frameIndexOf(String uniqueId) {
+        int hash = uniqueId.indexOf('#');
+        int colon = hash < 0 ? -1 : uniqueId.indexOf(':', hash);
+        if (colon < 0) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(uniqueId, hash + 1, colon, 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
     }
     public String getName() { return name; }
     public String getType() { return type; }
-    public String getValue() { return value; }
+    /** Texte affiché, construit à la demande. */
+    public String getValue() { return value.toString(); }
+    public RecordedValue getRecordedValue() { return value; }
     public String getMethodName() { return methodName; }
     public String getClassName() { return className; }
     public int getFrameIndex() { return frameIndex; }
     public int getSlot() { return slot; }
+    public int getArgumentIndex() { return argumentIndex; }
+    public boolean isArgument() { return argumentIndex >= 0; }
+    /**
+     * Même contenu, enfants compris ; les enfants étant internés avant leur parent,
+     * ils sont comparés par identité.
+     */
+    boolean sameContent(VariableSnapshot that) {
+        if (contentHash != that.contentHash || frameIndex != that.frameIndex || slot != that.slot
+                || argumentIndex != that.argumentIndex || arrayContents != that.arrayContents
+                || children.size() != that.children.size()
+                || !Objects.equals(name, that.name) || !Objects.equals(type, that.type)
+                || !Objects.equals(value, that.value) || !Objects.equals(methodName, that.methodName)
+                || !Objects.equals(className, that.className)) {
+            return false;
+        }
+        if (arrayContents != null) {
+            return true;
+        }
+        for (int i = 0; i < children.size(); i++) {
+            if (children.get(i) != that.children.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    int contentHash() { return contentHash; }
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -62,4 +151,22 @@ public class VariableSnapshot {
         return String.format("%s (%s) = %s [%s.%s #%d]",
                 name, type, value, className, methodName, frameIndex);
     }
+    /** Enfants d'un tableau de primitifs, construits à la lecture à partir de la version enregistrée. */
+    private final class ArrayElements extends AbstractList<VariableSnapshot> {
+        private final String elementType = type.endsWith("[]") ? type.substring(0, type.length() - 2) : type;
+        @Override
+        public VariableSnapshot get(int index) {
+            if (index == arrayContents.length()) {
+                return new VariableSnapshot("...", "more",
+                        "(" + (value.getSize() - arrayContents.length()) + " more elements)",
+                        methodName, className, frameIndex, slot);
+            }
+            return new VariableSnapshot("[" + index + "]", elementType, arrayContents.get(index),
+                    methodName, className, frameIndex, slot, -1);
+        }
+        @Override
+        public int size() {
+            return arrayContents.length() + (value.getSize() > arrayContents.length() ? 1 : 0);
+        }
+    }
 }
@@ -0,0 +1,49 @@
+package models;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+/**
+ * Table d'internement des variables enregistrées, par contenu. Un sous-arbre inchangé
+ * d'un pas à l'autre est le même objet : la mémoire d'un enregistrement croît avec
+ * ce qui change, pas avec la quantité d'état visible à chaque pas.
+ */
+public class VariableSnapshotTable {
+    private final Map<Key, VariableSnapshot> nodes = new HashMap<>();
+    /** Nœud canonique de même contenu ; les enfants doivent déjà être internés. */
+    public synchronized VariableSnapshot intern(VariableSnapshot candidate) {
+        VariableSnapshot existing = nodes.putIfAbsent(new Key(candidate), candidate);
+        return existing != null ? existing : candidate;
+    }
+    /** La même variable vue à une autre profondeur de pile, internée ; elle-même si l'indice ne change pas. */
+    public VariableSnapshot withFrameIndex(VariableSnapshot vs, int frameIndex) {
+        if (vs.getFrameIndex() == frameIndex) {
+            return vs;
+        }
+        List<VariableSnapshot> children = new ArrayList<>();
+        if (vs.getArrayContents() == null) {
+            for (VariableSnapshot child : vs.getChildren()) {
+                children.add(withFrameIndex(child, frameIndex));
+            }
+        }
+        return intern(new VariableSnapshot(vs.getName(), vs.getType(), vs.getRecordedValue(), vs.getMethodName(),
+                vs.getClassName(), frameIndex, vs.getSlot(), vs.getArgumentIndex(), children, vs.getArrayContents()));
+    }
+    public synchronized int size() {
+        return nodes.size();
+    }
+    private static final class Key {
+        private final VariableSnapshot vs;
+        Key(VariableSnapshot vs) {
+            this.vs = vs;
+        }
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && vs.sameContent(((Key) o).vs);
+        }
+        @Override
+        public int hashCode() {
+            return vs.contentHash();
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package query;
+public interface EvaluationContext {
+    Object resolve(String[] path);
+    Object builtin(String name);
+    EvaluationContext previous();
+}
@@ -0,0 +1,8 @@
+package query;
+@FunctionalInterface
+public interface Expression {
+    Object evaluate(EvaluationContext context);
+    default boolean test(EvaluationContext context) {
+        return Boolean.TRUE.equals(evaluate(context));
+    }
+}
@@ -0,0 +1,288 @@
+package query;
+import java.util.ArrayList;
+import java.util.List;
+/**
+ * Analyse une expression (ex: {@code i == 500 && name != null}) et la compile
+ * une seule fois en un arbre de closures {@link Expression}.
+ */
+public class ExpressionParser {
+    private final List<Token> tokens;
+    private int position;
+    private ExpressionParser(String source) {
+        this.tokens = tokenize(source);
+        this.position = 0;
+    }
+    public static Expression compile(String source) {
+        ExpressionParser parser = new ExpressionParser(source);
+        Expression expression = parser.parseExpression();
+        if (!parser.atEnd()) {
+            throw new IllegalArgumentException("Unexpected token '" + parser.peek().text + "' in: " + source);
+        }
+        return expression;
+    }
+    private boolean atEnd() {
+        return peek().kind == TokenKind.END;
+    }
+    private Expression parseExpression() {
+        return parseOr();
+    }
+    private Expression parseOr() {
+        Expression left = parseAnd();
+        while (acceptSymbol("||") || acceptWord("or")) {
+            Expression l = left;
+            Expression r = parseAnd();
+            left = ctx -> l.test(ctx) || r.test(ctx);
+        }
+        return left;
+    }
+    private Expression parseAnd() {
+        Expression left = parseUnary();
+        while (acceptSymbol("&&") || acceptWord("and")) {
+            Expression l = left;
+            Expression r = parseUnary();
+            left = ctx -> l.test(ctx) && r.test(ctx);
+        }
+        return left;
+    }
+    private Expression parseUnary() {
+        if (acceptSymbol("!") || acceptWord("not")) {
+            Expression operand = parseUnary();
+            return ctx -> !operand.test(ctx);
+        }
+        return parseComparison();
+    }
+    private Expression parseComparison() {
+        Expression left = parsePrimary();
+        Token op = peek();
+        if (op.kind == TokenKind.SYMBOL && isComparisonOperator(op.text)) {
+            position++;
+            Expression right = parsePrimary();
+            return comparison(op.text, left, right);
+        }
+        if (acceptWord("changes")) {
+            return comparison("!=", left, previous(left));
+        }
+        if (acceptWord("increases")) {
+            return comparison(">", left, previous(left));
+        }
+        if (acceptWord("decreases")) {
+            return comparison("<", left, previous(left));
+        }
+        return left;
+    }
+    private Expression parsePrimary() {
+        Token token = next();
+        switch (token.kind) {
+            case NUMBER:
+                Object number = token.text.contains(".")
+                        ? (Object) Double.parseDouble(token.text)
+                        : (Object) Long.parseLong(token.text);
+                return ctx -> number;
+            case STRING:
+                String literal = token.text;
+                return ctx -> literal;
+            case SYMBOL:
+                if (token.text.equals("(")) {
+                    Expression inner = parseExpression();
+                    expectSymbol(")");
+                    return inner;
+                }
+                if (token.text.equals("-") && peek().kind == TokenKind.NUMBER) {
+                    String negative = "-" + next().text;
+                    Object value = negative.contains(".")
+                            ? (Object) Double.parseDouble(negative)
+                            : (Object) Long.parseLong(negative);
+                    return ctx -> value;
+                }
+                break;
+            case WORD:
+                return parseWord(token.text);
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Unexpected token: " + (token.kind == TokenKind.END ? "end of input" : token.text));
+    }
+    private Expression parseWord(String word) {
+        switch (word) {
+            case "null":
+                return ctx -> null;
+            case "true":
+                return ctx -> Boolean.TRUE;
+            case "false":
+                return ctx -> Boolean.FALSE;
+            default:
+                break;
+        }
+        if (acceptSymbol("(")) {
+            Expression argument = parseExpression();
+            expectSymbol(")");
+            return function(word, argument);
+        }
+        if (word.startsWith("$")) {
+            String name = word.substring(1);
+            return ctx -> ctx.builtin(name);
+        }
+        List<String> path = new ArrayList<>();
+        path.add(word);
+        while (true) {
+            if (acceptSymbol(".")) {
+                path.add(expectWord());
+            } else if (acceptSymbol("[")) {
+                Token index = next();
+                if (index.kind != TokenKind.NUMBER) {
+                    throw new IllegalArgumentException("Array index expected after '['");
+                }
+                expectSymbol("]");
+                path.add("[" + index.text + "]");
+            } else {
+                break;
+            }
+        }
+        String[] segments = path.toArray(new String[0]);
+        return ctx -> ctx.resolve(segments);
+    }
+    private Expression function(String name, Expression argument) {
+        switch (name) {
+            case "size":
+                return ctx -> Values.size(argument.evaluate(ctx));
+            case "prev":
+                return previous(argument);
+            case "isnull":
+                return ctx -> argument.evaluate(ctx) == null;
+            default:
+                throw new IllegalArgumentException("Unknown function: " + name);
+        }
+    }
+    private static Expression previous(Expression argument) {
+        return ctx -> {
+            EvaluationContext prev = ctx.previous();
+            return prev != null ? argument.evaluate(prev) : Values.UNDEFINED;
+        };
+    }
+    private static Expression comparison(String op, Expression left, Expression right) {
+        switch (op) {
+            case "==":
+                return ctx -> Values.isEqual(left.evaluate(ctx), right.evaluate(ctx));
+            case "!=":
+                return ctx -> Values.isNotEqual(left.evaluate(ctx), right.evaluate(ctx));
+            case "<":
+                return ctx -> {
+                    Integer c = Values.compare(left.evaluate(ctx), right.evaluate(ctx));
+                    return c != null && c < 0;
+                };
+            case "<=":
+                return ctx -> {
+                    Integer c = Values.compare(left.evaluate(ctx), right.evaluate(ctx));
+                    return c != null && c <= 0;
+                };
+            case ">":
+                return ctx -> {
+                    Integer c = Values.compare(left.evaluate(ctx), right.evaluate(ctx));
+                    return c != null && c > 0;
+                };
+            case ">=":
+                return ctx -> {
+                    Integer c = Values.compare(left.evaluate(ctx), right.evaluate(ctx));
+                    return c != null && c >= 0;
+                };
+            default:
+                throw new IllegalArgumentException("Unknown operator: " + op);
+        }
+    }
+    private static boolean isComparisonOperator(String text) {
+        return text.equals("==") || text.equals("!=") || text.equals("<")
+                || text.equals("<=") || text.equals(">") || text.equals(">=");
+    }
+    private Token peek() {
+        return tokens.get(position);
+    }
+    private Token next() {
+        Token token = tokens.get(position);
+        if (token.kind != TokenKind.END) {
+            position++;
+        }
+        return token;
+    }
+    private boolean acceptSymbol(String symbol) {
+        Token token = peek();
+        if (token.kind == TokenKind.SYMBOL && token.text.equals(symbol)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+    private boolean acceptWord(String word) {
+        Token token = peek();
+        if (token.kind == TokenKind.WORD && token.text.equals(word)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+    private void expectSymbol(String symbol) {
+        if (!acceptSymbol(symbol)) {
+            throw new IllegalArgumentException("Expected '" + symbol + "'");
+        }
+    }
+    private String expectWord() {
+        Token token = next();
+        if (token.kind != TokenKind.WORD) {
+            throw new IllegalArgumentException("Identifier expected");
+        }
+        return token.text;
+    }
+    private static List<Token> tokenize(String source) {
+        List<Token> result = new ArrayList<>();
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (Character.isDigit(c)) {
+                int start = i;
+                while (i < source.length() && (Character.isDigit(source.charAt(i)) || source.charAt(i) == '.')) {
+                    i++;
+                }
+                result.add(new Token(TokenKind.NUMBER, source.substring(start, i)));
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int start = i;
+                while (i < source.length() && Character.isJavaIdentifierPart(source.charAt(i))) {
+                    i++;
+                }
+                result.add(new Token(TokenKind.WORD, source.substring(start, i)));
+            } else if (c == '"' || c == '\'') {
+                int end = source.indexOf(c, i + 1);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unterminated string literal");
+                }
+                result.add(new Token(TokenKind.STRING, source.substring(i + 1, end)));
+                i = end + 1;
+            } else {
+                String two = i + 1 < source.length() ? source.substring(i, i + 2) : "";
+                if (two.equals("==") || two.equals("!=") || two.equals("<=") || two.equals(">=")
+                        || two.equals("&&") || two.equals("||")) {
+                    result.add(new Token(TokenKind.SYMBOL, two));
+                    i += 2;
+                } else if ("<>!().[],-".indexOf(c) >= 0) {
+                    result.add(new Token(TokenKind.SYMBOL, String.valueOf(c)));
+                    i++;
+                } else {
+                    throw new IllegalArgumentException("Unexpected character '" + c + "'");
+                }
+            }
+        }
+        result.add(new Token(TokenKind.END, ""));
+        return result;
+    }
+    private enum TokenKind {
+        NUMBER, STRING, WORD, SYMBOL, END
+    }
+    private static class Token {
+        final TokenKind kind;
+        final String text;
+        Token(TokenKind kind, String text) {
+            this.kind = kind;
+            this.text = text;
+        }
+    }
+}
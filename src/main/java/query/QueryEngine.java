@@ -0,0 +1,233 @@
+package query;
+import models.ExecutionHistory;
+import models.ExecutionSnapshot;
+import models.TraceIndex;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+/**
+ * Évalue les requêtes en découpant les pas candidats en segments traités en parallèle
+ * sur un {@link ForkJoinPool}. Les résultats sont fusionnés dans l'ordre des pas.
+ */
+public class QueryEngine {
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    private static final int SEGMENT_SIZE = 1024;
+    private static final int CANCEL_CHECK_INTERVAL = 64;
+    private final ExecutionHistory history;
+    public QueryEngine(ExecutionHistory history) {
+        this.history = history;
+    }
+    public List<QueryResult> execute(TraceQuery query) throws InterruptedException {
+        List<QueryResult> results = new ArrayList<>();
+        execute(query, results::add);
+        return results;
+    }
+    /**
+     * Exécute la requête et transmet chaque résultat au fur et à mesure, dans l'ordre des pas.
+     * @return le nombre de résultats produits
+     */
+    public int execute(TraceQuery query, Consumer<QueryResult> sink) throws InterruptedException {
+        QueryExecution execution = start(query, results -> results.forEach(sink));
+        int count = execution.await();
+        if (execution.getFailure() != null) {
+            throw new IllegalStateException("Query failed: " + execution.getFailure().getMessage(), execution.getFailure());
+        }
+        return count;
+    }
+    public QueryExecution start(TraceQuery query, QueryListener listener) {
+        List<ExecutionSnapshot> snapshots = history.getAllSnapshots();
+        int[] candidates = candidateSteps(query, snapshots);
+        QueryExecution execution = new QueryExecution(query, candidates.length);
+        if (candidates.length == 0) {
+            try {
+                listener.onProgress(0, 0);
+                listener.onComplete(0, false);
+            } finally {
+                execution.finish(0);
+            }
+            return execution;
+        }
+        int segmentCount = (candidates.length + SEGMENT_SIZE - 1) / SEGMENT_SIZE;
+        Merger merger = new Merger(execution, listener, segmentCount);
+        Scan scan = new Scan(query, snapshots, candidates, merger);
+        POOL.execute(new SegmentRange(scan, 0, segmentCount));
+        return execution;
+    }
+    /** Pas à examiner, tous dans {@code snapshots} même si l'enregistrement a avancé depuis. */
+    private int[] candidateSteps(TraceQuery query, List<ExecutionSnapshot> snapshots) {
+        int size = snapshots.size();
+        if (query.getKind() == TraceQuery.Kind.CALLS) {
+            return TraceIndex.before(history.getTraceIndex(snapshots)
+                    .getMethodEntries(query.getClassName(), query.getMethodName()), size);
+        }
+        if (query.hasMethodScope()) {
+            return TraceIndex.before(history.getTraceIndex(snapshots)
+                    .getStepsInMethod(query.getClassName(), query.getMethodName()), size);
+        }
+        int[] all = new int[size];
+        for (int i = 0; i < size; i++) {
+            all[i] = i;
+        }
+        return all;
+    }
+    private static boolean matchesSignature(TraceQuery query, ExecutionSnapshot snapshot) {
+        if (query.getMethodSignature() == null || snapshot.getStack() == null) {
+            return true;
+        }
+        return query.getMethodSignature().equals(snapshot.getStack().getMethodSignature());
+    }
+    private static class Scan {
+        final TraceQuery query;
+        final List<ExecutionSnapshot> snapshots;
+        final int[] candidates;
+        final Merger merger;
+        Scan(TraceQuery query, List<ExecutionSnapshot> snapshots, int[] candidates, Merger merger) {
+            this.query = query;
+            this.snapshots = snapshots;
+            this.candidates = candidates;
+            this.merger = merger;
+        }
+        void scanSegment(int segment) {
+            int from = segment * SEGMENT_SIZE;
+            int to = Math.min(candidates.length, from + SEGMENT_SIZE);
+            boolean firstOnly = query.getKind() == TraceQuery.Kind.FIRST;
+            Expression predicate = query.getPredicate();
+            List<QueryResult> found = new ArrayList<>();
+            int scanned = 0;
+            try {
+                for (int i = from; i < to; i++) {
+                    if (scanned % CANCEL_CHECK_INTERVAL == 0 && merger.isStopped(segment)) {
+                        break;
+                    }
+                    scanned++;
+                    int step = candidates[i];
+                    ExecutionSnapshot snapshot = snapshots.get(step);
+                    if (!matchesSignature(query, snapshot)) {
+                        continue;
+                    }
+                    if (predicate != null && !predicate.test(new SnapshotEvaluationContext(snapshots, step))) {
+                        continue;
+                    }
+                    found.add(new QueryResult(step, snapshot));
+                    if (firstOnly) {
+                        merger.firstFoundAt(segment);
+                        break;
+                    }
+                }
+            } catch (RuntimeException e) {
+                merger.fail(e);
+            } finally {
+                merger.segmentDone(segment, found, to - from);
+            }
+        }
+    }
+    private static class SegmentRange extends RecursiveAction {
+        private final Scan scan;
+        private final int from;
+        private final int to;
+        SegmentRange(Scan scan, int from, int to) {
+            this.scan = scan;
+            this.from = from;
+            this.to = to;
+        }
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                scan.scanSegment(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SegmentRange(scan, from, mid), new SegmentRange(scan, mid, to));
+        }
+    }
+    /**
+     * Publie les résultats des segments dans l'ordre : un segment n'est transmis
+     * que lorsque tous les segments précédents sont terminés. Les appels à l'écouteur
+     * sont mis en file sous le verrou puis faits hors verrou, par un seul thread à la fois
+     * pour garder l'ordre ; une exception de l'écouteur fait échouer la requête sans
+     * empêcher sa fin.
+     */
+    private static class Merger {
+        private final QueryExecution execution;
+        private final QueryListener listener;
+        private final List<List<QueryResult>> pending;
+        private final boolean[] done;
+        private int nextToEmit;
+        private int completed;
+        private int emitted;
+        private final ArrayDeque<Runnable> events = new ArrayDeque<>();
+        private boolean draining;
+        private volatile int firstMatchSegment = Integer.MAX_VALUE;
+        Merger(QueryExecution execution, QueryListener listener, int segmentCount) {
+            this.execution = execution;
+            this.listener = listener;
+            this.pending = new ArrayList<>(Collections.nCopies(segmentCount, null));
+            this.done = new boolean[segmentCount];
+        }
+        boolean isStopped(int segment) {
+            return execution.isCancelled() || segment > firstMatchSegment;
+        }
+        void fail(RuntimeException failure) {
+            execution.fail(failure);
+        }
+        synchronized void firstFoundAt(int segment) {
+            firstMatchSegment = Math.min(firstMatchSegment, segment);
+        }
+        void segmentDone(int segment, List<QueryResult> found, int segmentLength) {
+            synchronized (this) {
+                pending.set(segment, found);
+                done[segment] = true;
+                completed++;
+                int scanned = execution.addScanned(segmentLength);
+                if (!execution.isCancelled()) {
+                    events.add(() -> listener.onProgress(scanned, execution.getTotal()));
+                }
+                boolean firstOnly = execution.getQuery().getKind() == TraceQuery.Kind.FIRST;
+                while (nextToEmit < done.length && done[nextToEmit]) {
+                    List<QueryResult> results = pending.set(nextToEmit, null);
+                    if (!results.isEmpty() && !execution.isCancelled() && !(firstOnly && emitted > 0)) {
+                        events.add(() -> listener.onResults(results));
+                        emitted += results.size();
+                    }
+                    nextToEmit++;
+                }
+                if (completed == done.length) {
+                    int count = emitted;
+                    events.add(() -> {
+                        try {
+                            listener.onComplete(count, execution.isCancelled());
+                        } finally {
+                            execution.finish(count);
+                        }
+                    });
+                }
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            drain();
+        }
+        private void drain() {
+            while (true) {
+                Runnable event;
+                synchronized (this) {
+                    event = events.poll();
+                    if (event == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    event.run();
+                } catch (RuntimeException e) {
+                    execution.fail(e);
+                }
+            }
+        }
+    }
+}
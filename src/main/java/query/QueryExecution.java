@@ -0,0 +1,49 @@
+package query;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+public class QueryExecution {
+    private final TraceQuery query;
+    private final int total;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final AtomicInteger scanned = new AtomicInteger();
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private volatile int resultCount;
+    private volatile Throwable failure;
+    QueryExecution(TraceQuery query, int total) {
+        this.query = query;
+        this.total = total;
+    }
+    public void cancel() {
+        cancelled.set(true);
+    }
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+    public boolean isDone() {
+        return finished.getCount() == 0;
+    }
+    /**
+     * Attend la fin de la requête.
+     * @return le nombre de résultats produits
+     */
+    public int await() throws InterruptedException {
+        finished.await();
+        return resultCount;
+    }
+    public TraceQuery getQuery() { return query; }
+    public int getTotal() { return total; }
+    public int getScanned() { return scanned.get(); }
+    public Throwable getFailure() { return failure; }
+    int addScanned(int count) {
+        return scanned.addAndGet(count);
+    }
+    void fail(Throwable failure) {
+        this.failure = failure;
+        cancel();
+    }
+    void finish(int resultCount) {
+        this.resultCount = resultCount;
+        finished.countDown();
+    }
+}
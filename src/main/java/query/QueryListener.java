@@ -0,0 +1,7 @@
+package query;
+import java.util.List;
+public interface QueryListener {
+    void onResults(List<QueryResult> results);
+    default void onProgress(int scanned, int total) {}
+    default void onComplete(int resultCount, boolean cancelled) {}
+}
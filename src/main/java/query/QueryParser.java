@@ -0,0 +1,62 @@
+package query;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+/**
+ * Langage de requête sur la trace enregistrée :
+ * <pre>
+ *   steps [where &lt;expr&gt;] [in &lt;Class.method&gt;]
+ *   first [step] where &lt;expr&gt; [in &lt;Class.method&gt;]
+ *   calls to &lt;Class.method[(signature)]&gt; [where &lt;expr&gt;]
+ * </pre>
+ */
+public class QueryParser {
+    private static final Pattern SCOPE = Pattern.compile("^(.*?)\\s+in\\s+([\\w.$]+(?:\\([^)\\s]*\\)\\S*)?)\\s*$");
+    private static final Pattern CALLS = Pattern.compile("^calls\\s+to\\s+([\\w.$]+(?:\\([^)\\s]*\\)\\S*)?)(?:\\s+where\\s+(.+))?$");
+    private static final Pattern STEPS = Pattern.compile("^(steps|first(?:\\s+step)?)(?:\\s+where\\s+(.+))?$");
+    public static TraceQuery parse(String text) {
+        String query = text.trim();
+        Matcher calls = CALLS.matcher(query);
+        if (calls.matches()) {
+            String[] target = splitMethodReference(calls.group(1));
+            return new TraceQuery(query, TraceQuery.Kind.CALLS, compileOptional(calls.group(2)),
+                    target[0], target[1], target[2]);
+        }
+        String[] scope = { null, null, null };
+        Matcher scoped = SCOPE.matcher(query);
+        String body = query;
+        if (scoped.matches()) {
+            body = scoped.group(1).trim();
+            scope = splitMethodReference(scoped.group(2));
+        }
+        Matcher steps = STEPS.matcher(body);
+        if (!steps.matches()) {
+            throw new IllegalArgumentException("Invalid query: " + text
+                    + " (expected 'steps where ...', 'first step where ...' or 'calls to ...')");
+        }
+        TraceQuery.Kind kind = steps.group(1).startsWith("first") ? TraceQuery.Kind.FIRST : TraceQuery.Kind.STEPS;
+        if (kind == TraceQuery.Kind.FIRST && steps.group(2) == null) {
+            throw new IllegalArgumentException("'first' queries require a where clause");
+        }
+        return new TraceQuery(query, kind, compileOptional(steps.group(2)), scope[0], scope[1], scope[2]);
+    }
+    private static Expression compileOptional(String source) {
+        return source != null ? ExpressionParser.compile(source) : null;
+    }
+    /**
+     * Découpe {@code pkg.A.m(I)V} en classe, méthode et signature.
+     */
+    public static String[] splitMethodReference(String reference) {
+        String signature = null;
+        String qualified = reference;
+        int paren = reference.indexOf('(');
+        if (paren >= 0) {
+            signature = reference.substring(paren);
+            qualified = reference.substring(0, paren);
+        }
+        int dot = qualified.lastIndexOf('.');
+        if (dot < 0) {
+            return new String[] { null, qualified, signature };
+        }
+        return new String[] { qualified.substring(0, dot), qualified.substring(dot + 1), signature };
+    }
+}
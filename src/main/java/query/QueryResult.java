@@ -0,0 +1,17 @@
+package query;
+import models.ExecutionSnapshot;
+public class QueryResult {
+    private final int index;
+    private final ExecutionSnapshot snapshot;
+    public QueryResult(int index, ExecutionSnapshot snapshot) {
+        this.index = index;
+        this.snapshot = snapshot;
+    }
+    public int getIndex() { return index; }
+    public int getStepNumber() { return snapshot.getStepNumber(); }
+    public ExecutionSnapshot getSnapshot() { return snapshot; }
+    @Override
+    public String toString() {
+        return snapshot.toString();
+    }
+}
@@ -0,0 +1,135 @@
+package query;
+import models.ExecutionSnapshot;
+import models.RecordedValue;
+import models.VariableSnapshot;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+/**
+ * Évalue les expressions sur un pas enregistré, sans machine virtuelle :
+ * les variables sont celles de la frame courante du {@link ExecutionSnapshot}.
+ */
+public class SnapshotEvaluationContext implements EvaluationContext {
+    private static final Pattern ARGUMENT = Pattern.compile("arg(\\d+)");
+    private final List<ExecutionSnapshot> snapshots;
+    private final int index;
+    private final ExecutionSnapshot snapshot;
+    public SnapshotEvaluationContext(List<ExecutionSnapshot> snapshots, int index) {
+        this.snapshots = snapshots;
+        this.index = index;
+        this.snapshot = snapshots.get(index);
+    }
+    @Override
+    public Object resolve(String[] path) {
+        List<VariableSnapshot> variables = snapshot.getVariablesForFrame(0);
+        VariableSnapshot current = findByName(variables, path[0]);
+        if (current == null) {
+            Matcher argument = ARGUMENT.matcher(path[0]);
+            if (argument.matches()) {
+                current = findArgument(variables, Integer.parseInt(argument.group(1)));
+            }
+        }
+        for (int i = 1; i < path.length && current != null; i++) {
+            current = findByName(current.getChildren(), path[i]);
+        }
+        return current != null ? toValue(current) : Values.UNDEFINED;
+    }
+    @Override
+    public Object builtin(String name) {
+        switch (name) {
+            case "step":
+                return (long) snapshot.getStepNumber();
+            case "line":
+                return (long) snapshot.getLineNumber();
+            case "depth":
+                return (long) snapshot.getStackDepth();
+            case "method":
+                return snapshot.getMethodName();
+            case "class":
+                return snapshot.getClassName();
+            case "file":
+                return snapshot.getSourceFile();
+            default:
+                return Values.UNDEFINED;
+        }
+    }
+    /**
+     * Pas précédent de la même invocation : on remonte au-dessus des pas passés
+     * dans les méthodes appelées, jusqu'à retrouver la même profondeur.
+     */
+    @Override
+    public EvaluationContext previous() {
+        int depth = snapshot.getStackDepth();
+        for (int i = index - 1; i >= 0; i--) {
+            ExecutionSnapshot candidate = snapshots.get(i);
+            int candidateDepth = candidate.getStackDepth();
+            if (candidateDepth > depth) {
+                continue;
+            }
+            if (candidateDepth == depth
+                    && candidate.getMethodName().equals(snapshot.getMethodName())
+                    && candidate.getClassName().equals(snapshot.getClassName())) {
+                return new SnapshotEvaluationContext(snapshots, i);
+            }
+            return null;
+        }
+        return null;
+    }
+    private static VariableSnapshot findByName(List<VariableSnapshot> variables, String name) {
+        for (VariableSnapshot vs : variables) {
+            if (vs.getName().equals(name)) {
+                return vs;
+            }
+        }
+        return null;
+    }
+    private static VariableSnapshot findArgument(List<VariableSnapshot> variables, int argumentIndex) {
+        for (VariableSnapshot vs : variables) {
+            if (vs.getArgumentIndex() == argumentIndex) {
+                return vs;
+            }
+        }
+        return null;
+    }
+    static Object toValue(VariableSnapshot vs) {
+        RecordedValue value = vs.getRecordedValue();
+        switch (value.getKind()) {
+            case NULL:
+                return null;
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                return value.longValue();
+            case FLOAT:
+            case DOUBLE:
+                return value.doubleValue();
+            case BOOLEAN:
+                return value.booleanValue();
+            case CHAR:
+                return String.valueOf(value.charValue());
+            case STRING:
+                return value.getText();
+            default:
+                break;
+        }
+        switch (vs.getType()) {
+            case "java.lang.Byte":
+            case "java.lang.Short":
+            case "java.lang.Integer":
+            case "java.lang.Long":
+            case "java.lang.Float":
+            case "java.lang.Double":
+            case "java.lang.Boolean":
+            case "java.lang.Character":
+                VariableSnapshot boxed = findByName(vs.getChildren(), "value");
+                if (boxed != null) {
+                    return toValue(boxed);
+                }
+                break;
+            default:
+                break;
+        }
+        return new Values.Ref(value);
+    }
+}
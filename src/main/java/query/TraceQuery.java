@@ -0,0 +1,36 @@
+package query;
+public class TraceQuery {
+    public enum Kind {
+        STEPS,
+        FIRST,
+        CALLS
+    }
+    private final String text;
+    private final Kind kind;
+    private final Expression predicate;
+    private final String className;
+    private final String methodName;
+    private final String methodSignature;
+    public TraceQuery(String text, Kind kind, Expression predicate,
+                      String className, String methodName, String methodSignature) {
+        this.text = text;
+        this.kind = kind;
+        this.predicate = predicate;
+        this.className = className;
+        this.methodName = methodName;
+        this.methodSignature = methodSignature;
+    }
+    public String getText() { return text; }
+    public Kind getKind() { return kind; }
+    public Expression getPredicate() { return predicate; }
+    public String getClassName() { return className; }
+    public String getMethodName() { return methodName; }
+    public String getMethodSignature() { return methodSignature; }
+    public boolean hasMethodScope() {
+        return methodName != null;
+    }
+    @Override
+    public String toString() {
+        return text;
+    }
+}
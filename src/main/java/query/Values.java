@@ -0,0 +1,76 @@
+package query;
+import models.RecordedValue;
+import java.util.Objects;
+public final class Values {
+    public static final Object UNDEFINED = new Object() {
+        @Override
+        public String toString() {
+            return "<undefined>";
+        }
+    };
+    private Values() {}
+    /** Référence enregistrée : comparée sur son identifiant d'objet, sa taille et son type. */
+    public static final class Ref {
+        private final RecordedValue value;
+        public Ref(RecordedValue value) {
+            this.value = value;
+        }
+        public String getDisplay() { return value.toString(); }
+        public int getSize() { return value.getSize(); }
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Ref && ((Ref) o).value.equals(value);
+        }
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+        @Override
+        public String toString() {
+            return value.toString();
+        }
+    }
+    public static Object size(Object value) {
+        if (value instanceof Ref && ((Ref) value).getSize() >= 0) {
+            return (long) ((Ref) value).getSize();
+        }
+        if (value instanceof String) {
+            return (long) ((String) value).length();
+        }
+        return UNDEFINED;
+    }
+    public static boolean isEqual(Object a, Object b) {
+        if (a == UNDEFINED || b == UNDEFINED) {
+            return false;
+        }
+        if (a instanceof Number && b instanceof Number) {
+            return compareNumbers((Number) a, (Number) b) == 0;
+        }
+        return Objects.equals(a, b);
+    }
+    public static boolean isNotEqual(Object a, Object b) {
+        if (a == UNDEFINED || b == UNDEFINED) {
+            return false;
+        }
+        return !isEqual(a, b);
+    }
+    /**
+     * Compare deux valeurs ordonnables.
+     * @return le signe de la comparaison, ou null si les valeurs ne sont pas comparables
+     */
+    public static Integer compare(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            return compareNumbers((Number) a, (Number) b);
+        }
+        if (a instanceof String && b instanceof String) {
+            return Integer.signum(((String) a).compareTo((String) b));
+        }
+        return null;
+    }
+    private static int compareNumbers(Number a, Number b) {
+        if (a instanceof Double || b instanceof Double) {
+            return Double.compare(a.doubleValue(), b.doubleValue());
+        }
+        return Long.compare(a.longValue(), b.longValue());
+    }
+}
@@ -0,0 +1,19 @@
+package commands;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+class CommandInterpreterTest {
+    @Test
+    void textAfterKeepsSpacesInsideLiterals() {
+        assertEquals("steps where name == \"a  b\"", CommandInterpreter.textAfter("  query steps where name == \"a  b\"", 1));
+        assertEquals("s == \"x\ty\"", CommandInterpreter.textAfter("Foo.java   12  s == \"x\ty\"", 2));
+        assertEquals("", CommandInterpreter.textAfter("Foo.java 12", 2));
+    }
+    @Test
+    void textCommandsStillParse() throws Exception {
+        CommandInterpreter interpreter = new CommandInterpreter();
+        assertTrue(interpreter.parse("query steps where name == \"a  b\"") instanceof QueryCommand);
+        assertTrue(interpreter.parse("break-if Foo.java 12 s == \"a  b\"") instanceof BreakIfCommand);
+        assertTrue(interpreter.parse("condition Foo.java 12") instanceof ConditionCommand);
+    }
+}
@@ -0,0 +1,75 @@
+package gui.components;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+/**
+ * Rendu d'un fichier de 20 000 lignes : chaque repaint ne doit coûter que les lignes visibles.
+ * Hors de la tâche test, lancé par {@code gradle benchmark}.
+ */
+@Tag("benchmark")
+class SourceCodePanelBenchmarkTest {
+    private static final int LINES = 20_000;
+    private static final int FRAMES = 500;
+    @Test
+    void scrollingA20kLineFileStaysCheap() throws Exception {
+        SourceCodePanel panel = new SourceCodePanel();
+        panel.setSourceLines(source());
+        BufferedImage image = new BufferedImage(1000, 800, BufferedImage.TYPE_INT_RGB);
+        long[] measures = new long[3];
+        SwingUtilities.invokeAndWait(() -> {
+            panel.setSize(1000, 800);
+            panel.validate();
+            JViewport viewport = ((JScrollPane) panel.getComponent(0)).getViewport();
+            viewport.getView().setSize(viewport.getView().getPreferredSize());
+            measures[2] = viewport.getView().getHeight();
+            Graphics2D g = image.createGraphics();
+            try {
+                long start = System.nanoTime();
+                paintFrames(panel, viewport, g);
+                measures[0] = System.nanoTime() - start;
+                start = System.nanoTime();
+                paintFrames(panel, viewport, g);
+                measures[1] = System.nanoTime() - start;
+            } finally {
+                g.dispose();
+            }
+        });
+        double cold = measures[0] / 1e6 / FRAMES;
+        double warm = measures[1] / 1e6 / FRAMES;
+        System.out.printf("SourceCodePanel, %d lignes : %.3f ms/frame (premier passage), %.3f ms/frame (jetons en cache)%n",
+                LINES, cold, warm);
+        assertTrue(measures[2] > LINES * 10, "source not laid out: " + measures[2] + " px");
+        assertTrue(warm < 20, "repaint too slow: " + warm + " ms/frame");
+    }
+    private static void paintFrames(SourceCodePanel panel, JViewport viewport, Graphics2D g) {
+        int maxY = viewport.getView().getHeight() - viewport.getHeight();
+        for (int i = 0; i < FRAMES; i++) {
+            viewport.setViewPosition(new Point(0, (int) ((long) maxY * i / FRAMES)));
+            panel.paint(g);
+        }
+    }
+    private static List<String> source() {
+        List<String> lines = new ArrayList<>(LINES);
+        for (int i = 0; i < LINES; i++) {
+            switch (i % 4) {
+                case 0:
+                    lines.add("    public int method" + i + "(int value) {");
+                    break;
+                case 1:
+                    lines.add("        String label = \"line " + i + "\"; // commentaire");
+                    break;
+                case 2:
+                    lines.add("        return value * " + i + " + label.length();");
+                    break;
+                default:
+                    lines.add("    }");
+            }
+        }
+        return lines;
+    }
+}
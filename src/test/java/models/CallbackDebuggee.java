@@ -0,0 +1,23 @@
+package models;
+/**
+ * Boucle d'une classe interne, jamais enregistrée, qui rappelle la classe déboguée : entre
+ * deux appels à visit, le compteur de forEach change sans qu'aucun pas ne le voie.
+ */
+public class CallbackDebuggee {
+    static int total;
+    static void visit(int v) {
+        total += v;
+        total *= 2;
+    }
+    static class Helper {
+        static void forEach(int n) {
+            for (int i = 0; i < n; i++) {
+                visit(i);
+            }
+        }
+    }
+    public static void main(String[] args) {
+        Helper.forEach(4);
+        System.out.println(total);
+    }
+}
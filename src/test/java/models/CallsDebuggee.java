@@ -0,0 +1,26 @@
+package models;
+/**
+ * Appels consécutifs sans pas intermédiaire dans l'appelant : les pas ne sont demandés que
+ * dans la classe déboguée, Helper s'exécute sans être enregistré entre la fin de a et b.
+ */
+public class CallsDebuggee {
+    static int total;
+    static void a() {
+        total += 1;
+    }
+    static void b() {
+        total += 2;
+    }
+    static class Helper {
+        static void run() {
+            a();
+            b();
+        }
+    }
+    public static void main(String[] args) {
+        for (int i = 0; i < 3; i++) {
+            Helper.run();
+        }
+        System.out.println(total);
+    }
+}
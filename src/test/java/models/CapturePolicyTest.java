@@ -0,0 +1,51 @@
+package models;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+class CapturePolicyTest {
+    @Test
+    void unknownTypesUseTheDefaultRule() {
+        CapturePolicy policy = new CapturePolicy();
+        assertEquals("*", policy.ruleFor("com.example.Foo").getPattern());
+        assertEquals(CapturePolicy.DEFAULT_MAX_DEPTH, policy.ruleFor("com.example.Foo").getMaxDepth());
+        assertEquals("*", policy.ruleFor(null).getPattern());
+    }
+    @Test
+    void exactTypeBeatsAnyPackage() {
+        CapturePolicy policy = new CapturePolicy()
+                .rule("java.util.*", 1, 10)
+                .rule("java.util.HashMap", 2, 20);
+        assertEquals("java.util.HashMap", policy.ruleFor("java.util.HashMap").getPattern());
+        assertEquals("java.util.*", policy.ruleFor("java.util.ArrayList").getPattern());
+    }
+    @Test
+    void longestPackageWins() {
+        CapturePolicy policy = new CapturePolicy()
+                .rule("java.*", 1, 10)
+                .rule("java.util.concurrent.*", 2, 20);
+        assertEquals("java.util.concurrent.*", policy.ruleFor("java.util.concurrent.ConcurrentHashMap").getPattern());
+        assertEquals("java.*", policy.ruleFor("java.util.ArrayList").getPattern());
+    }
+    @Test
+    void packagePatternDoesNotMatchAPrefixOfAName() {
+        CapturePolicy policy = new CapturePolicy().rule("java.util.*", 1, 10);
+        assertEquals("*", policy.ruleFor("java.utilities.Foo").getPattern());
+    }
+    @Test
+    void newRulesInvalidateCachedLookups() {
+        CapturePolicy policy = new CapturePolicy();
+        assertEquals("*", policy.ruleFor("int[]").getPattern());
+        policy.sizeOnly("int[]");
+        assertEquals(0, policy.ruleFor("int[]").getMaxDepth());
+        policy.rule("int[]", 2, 5);
+        assertEquals(5, policy.ruleFor("int[]").getMaxChildren());
+        policy.rule("*", 1, 1);
+        assertEquals(1, policy.ruleFor("Foo").getMaxDepth());
+    }
+    @Test
+    void negativeLimitsAreRejected() {
+        CapturePolicy policy = new CapturePolicy();
+        assertThrows(IllegalArgumentException.class, () -> policy.rule("Foo", -1, 1));
+        assertThrows(IllegalArgumentException.class, () -> policy.primitiveArrayLimit(-1));
+    }
+}
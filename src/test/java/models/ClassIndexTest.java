@@ -0,0 +1,65 @@
+package models;
+import com.sun.jdi.ReferenceType;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+class ClassIndexTest {
+    private final List<String> sourceReads = new ArrayList<>();
+    private ClassIndex index;
+    /** Type chargé dont seuls le nom et le fichier source sont connus ; chaque lecture du fichier est notée. */
+    private ReferenceType type(String name, String sourceName) {
+        return (ReferenceType) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {ReferenceType.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "name": return name;
+                        case "sourceName":
+                            sourceReads.add(name);
+                            return sourceName;
+                        case "hashCode": return System.identityHashCode(proxy);
+                        case "equals": return proxy == args[0];
+                        case "toString": return name;
+                        default: throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+    @BeforeEach
+    void setUp() {
+        index = new ClassIndex();
+        Map<String, String> sources = Map.of("p.Foo", "Foo.java", "p.Foo$Inner", "Foo.java", "p.Bar", "Foo.java",
+                "q.Other", "Other.java", "java.lang.String", "String.java");
+        for (Map.Entry<String, String> entry : sources.entrySet()) {
+            index.add(type(entry.getKey(), entry.getValue()));
+        }
+    }
+    private static List<String> names(List<ReferenceType> types) {
+        List<String> names = new ArrayList<>();
+        for (ReferenceType type : types) {
+            names.add(type.name());
+        }
+        names.sort(null);
+        return names;
+    }
+    @Test
+    void onlyClassesNamedAfterTheFileAreReadFirst() {
+        assertEquals(List.of("p.Foo", "p.Foo$Inner"), names(index.getBySourceName("Foo.java")));
+        assertEquals(2, sourceReads.size(), sourceReads.toString());
+    }
+    @Test
+    void secondaryClassesAreSearchedInTheFilePackageOnly() {
+        index.getBySourceName("Foo.java");
+        assertEquals(List.of("p.Bar", "p.Foo", "p.Foo$Inner"), names(index.getAllBySourceName("Foo.java")));
+        assertEquals(3, sourceReads.size(), sourceReads.toString());
+    }
+    @Test
+    void anUnknownFileReadsEveryClassOnce() {
+        assertEquals(List.of(), names(index.getBySourceName("Missing.java")));
+        assertEquals(5, sourceReads.size());
+        index.getBySourceName("Missing.java");
+        assertEquals(List.of("p.Bar", "p.Foo", "p.Foo$Inner"), names(index.getBySourceName("Foo.java")));
+        assertEquals(5, sourceReads.size());
+    }
+}
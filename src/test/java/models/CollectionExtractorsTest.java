@@ -0,0 +1,37 @@
+package models;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+class CollectionExtractorsTest {
+    private static VariableSnapshot variable(ExecutionSnapshot snapshot, String name) {
+        for (VariableSnapshot vs : snapshot.getVariablesForFrame(0)) {
+            if (vs.getName().equals(name)) {
+                return vs;
+            }
+        }
+        return null;
+    }
+    private static List<String> children(VariableSnapshot variable, boolean names) {
+        List<String> children = new ArrayList<>();
+        for (VariableSnapshot child : variable.getChildren()) {
+            children.add(names ? child.getName() : child.getValue());
+        }
+        return children;
+    }
+    @Test
+    void linkedCollectionsAreReadInIterationOrder() {
+        DebuggerState state = Recordings.record(OrderedCollectionsDebuggee.class);
+        List<ExecutionSnapshot> snapshots = state.getExecutionHistory().getAllSnapshots();
+        ExecutionSnapshot last = null;
+        for (ExecutionSnapshot snapshot : snapshots) {
+            if (snapshot.getMethodName().equals("main") && variable(snapshot, "set") != null) {
+                last = snapshot;
+            }
+        }
+        assertNotNull(last);
+        assertEquals(List.of("[\"mu\"]", "[\"alpha\"]", "[\"zeta\"]"), children(variable(last, "map"), true));
+        assertEquals(List.of("\"mu\"", "\"alpha\"", "\"zeta\"", "\"four\""), children(variable(last, "set"), false));
+    }
+}
@@ -0,0 +1,66 @@
+package models;
+import com.sun.jdi.VirtualMachine;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+class ExecutionSnapshotTest {
+    private static String valueOf(ExecutionSnapshot snapshot, int frame, String name) {
+        for (VariableSnapshot vs : snapshot.getVariablesForFrame(frame)) {
+            if (vs.getName().equals(name)) {
+                return vs.getValue();
+            }
+        }
+        return null;
+    }
+    @Test
+    void callerFramesOutsideTheSteppedClassAreReadAgain() {
+        DebuggerState state = Recordings.record(CallbackDebuggee.class);
+        int visits = 0;
+        for (ExecutionSnapshot snapshot : state.getExecutionHistory().getAllSnapshots()) {
+            if (!snapshot.getMethodName().equals("visit")) {
+                continue;
+            }
+            String counter = valueOf(snapshot, 1, "i");
+            assertNotNull(counter, "forEach frame at step " + snapshot.getStepNumber());
+            assertEquals(valueOf(snapshot, 0, "v"), counter, "step " + snapshot.getStepNumber());
+            visits++;
+        }
+        assertTrue(visits >= 8, "visit steps: " + visits);
+    }
+    @Test
+    void theTopFrameIsReadOncePerStep() {
+        PrintStream err = System.err;
+        ByteArrayOutputStream trace = new ByteArrayOutputStream();
+        DebuggerState state;
+        try {
+            System.setErr(new PrintStream(trace, true, StandardCharsets.UTF_8));
+            state = Recordings.record(LocalsDebuggee.class, VirtualMachine.TRACE_SENDS);
+        } finally {
+            System.setErr(err);
+        }
+        int steps = state.getExecutionHistory().size();
+        int reads = trace.toString(StandardCharsets.UTF_8).split("JDWP\\.StackFrame\\.GetValues", -1).length - 1;
+        assertTrue(steps >= 10, "steps: " + steps);
+        assertTrue(reads <= steps, "StackFrame.GetValues: " + reads + " for " + steps + " steps");
+    }
+    @Test
+    void variablesAreFoundByUniqueIdInTheirFrame() {
+        DebuggerState state = Recordings.record(CallbackDebuggee.class);
+        int checked = 0;
+        for (ExecutionSnapshot snapshot : state.getExecutionHistory().getAllSnapshots()) {
+            for (VariableSnapshot vs : snapshot.getVariableSnapshots()) {
+                VariableSnapshot found = snapshot.getVariableById(vs.getUniqueId());
+                assertNotNull(found, vs.getUniqueId());
+                assertEquals(vs.getUniqueId(), found.getUniqueId());
+                checked++;
+            }
+            assertNull(snapshot.getVariableById("no such id"));
+        }
+        assertTrue(checked > 0);
+    }
+}
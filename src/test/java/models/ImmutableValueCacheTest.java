@@ -0,0 +1,47 @@
+package models;
+import com.sun.jdi.StringReference;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+class ImmutableValueCacheTest {
+    private final AtomicInteger reads = new AtomicInteger();
+    /** Chaîne du débogué dont chaque lecture du contenu est comptée. */
+    private StringReference string(String value) {
+        return (StringReference) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {StringReference.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "value":
+                            reads.incrementAndGet();
+                            return new String(value);
+                        case "hashCode": return System.identityHashCode(proxy);
+                        case "equals": return proxy == args[0];
+                        default: throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+    @Test
+    void eachStringIsReadOnce() {
+        ImmutableValueCache cache = new ImmutableValueCache();
+        StringReference ref = string("abc");
+        assertSame(cache.string(ref), cache.string(ref));
+        assertEquals(1, reads.get());
+    }
+    @Test
+    void equalContentsShareOneValue() {
+        ImmutableValueCache cache = new ImmutableValueCache();
+        assertSame(cache.string(string("abc")), cache.string(string("abc")));
+        assertEquals(2, reads.get());
+    }
+    @Test
+    void contentsAreForgottenBeyondCapacity() {
+        ImmutableValueCache cache = new ImmutableValueCache(2);
+        RecordedValue first = cache.string(string("a"));
+        cache.string(string("b"));
+        cache.string(string("c"));
+        assertNotSame(first, cache.string(string("a")));
+        assertEquals(2, cache.size());
+    }
+}
@@ -0,0 +1,12 @@
+package models;
+/** Une seule frame, dont les variables locales changent à chaque pas. */
+public class LocalsDebuggee {
+    public static void main(String[] args) {
+        int sum = 0;
+        for (int i = 0; i < 5; i++) {
+            int square = i * i;
+            sum += square;
+        }
+        System.out.println(sum);
+    }
+}
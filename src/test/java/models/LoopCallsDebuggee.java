@@ -0,0 +1,32 @@
+package models;
+/**
+ * Appels répétés depuis une boucle d'une classe jamais enregistrée : même appelant, même
+ * profondeur, aucun pas entre deux appels. count a sa propre boucle, appelée une fois.
+ */
+public class LoopCallsDebuggee {
+    static int total;
+    static void a() {
+        total += 1;
+    }
+    static void one() { total++; }
+    static void count() {
+        for (int i = 0; i < 3; i++) {
+            total += i;
+        }
+    }
+    static class Helper {
+        static void repeat(int n) {
+            for (int i = 0; i < n; i++) {
+                a();
+            }
+            for (int i = 0; i < n; i++) {
+                one();
+            }
+        }
+    }
+    public static void main(String[] args) {
+        Helper.repeat(4);
+        count();
+        System.out.println(total);
+    }
+}
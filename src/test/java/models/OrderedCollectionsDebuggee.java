@@ -0,0 +1,17 @@
+package models;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+/** Clés insérées dans un ordre qui n'est pas celui des seaux de la table. */
+public class OrderedCollectionsDebuggee {
+    public static void main(String[] args) {
+        Map<String, Integer> map = new LinkedHashMap<>();
+        map.put("mu", 1);
+        map.put("alpha", 2);
+        map.put("zeta", 3);
+        Set<String> set = new LinkedHashSet<>(map.keySet());
+        set.add("four");
+        System.out.println(map.size() + set.size());
+    }
+}
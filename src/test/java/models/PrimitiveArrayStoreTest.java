@@ -0,0 +1,125 @@
+package models;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+class PrimitiveArrayStoreTest {
+    private static final long ID = 1;
+    private PrimitiveArrayStore store;
+    @BeforeEach
+    void setUp() {
+        store = new PrimitiveArrayStore();
+    }
+    private PrimitiveArrayStore.Version capture(int[] contents) {
+        return store.capture(ID, RecordedValue.Kind.INT, contents.clone());
+    }
+    private static void assertContents(int[] expected, PrimitiveArrayStore.Version version) {
+        assertEquals(expected.length, version.length());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(RecordedValue.ofInt(expected[i]), version.get(i), "element " + i);
+        }
+    }
+    @Test
+    void firstCaptureIsAFullCopy() {
+        int[] a = {1, 2, 3, 4};
+        assertContents(a, capture(a));
+        assertEquals(4, store.getStoredElements());
+    }
+    @Test
+    void unchangedArrayReturnsThePreviousVersion() {
+        int[] a = {1, 2, 3};
+        PrimitiveArrayStore.Version first = capture(a);
+        assertSame(first, capture(a));
+        assertEquals(3, store.getStoredElements());
+    }
+    @Test
+    void onlyChangedRangesAreStored() {
+        int[] a = new int[100];
+        PrimitiveArrayStore.Version first = capture(a);
+        a[10] = 1;
+        a[90] = 2;
+        PrimitiveArrayStore.Version second = capture(a);
+        assertEquals(102, store.getStoredElements());
+        assertContents(a, second);
+        assertEquals(RecordedValue.ofInt(0), first.get(10));
+    }
+    @Test
+    void closeChangesAreMergedIntoOneRange() {
+        int[] a = new int[100];
+        capture(a);
+        a[10] = 1;
+        a[14] = 1;
+        assertContents(a, capture(a));
+        assertEquals(105, store.getStoredElements());
+    }
+    @Test
+    void everyVersionReadsItsOwnContents() {
+        int[] a = new int[50];
+        PrimitiveArrayStore.Version[] versions = new PrimitiveArrayStore.Version[40];
+        int[][] expected = new int[40][];
+        for (int step = 0; step < versions.length; step++) {
+            a[(step * 7) % a.length] = step + 1;
+            versions[step] = capture(a);
+            expected[step] = a.clone();
+        }
+        for (int step = 0; step < versions.length; step++) {
+            assertContents(expected[step], versions[step]);
+        }
+    }
+    @Test
+    void aFullCopyIsTakenEveryCheckpointInterval() {
+        int[] a = new int[1000];
+        capture(a);
+        for (int i = 1; i < PrimitiveArrayStore.CHECKPOINT_INTERVAL; i++) {
+            a[i] = i;
+            capture(a);
+        }
+        assertEquals(1000 + PrimitiveArrayStore.CHECKPOINT_INTERVAL - 1, store.getStoredElements());
+        a[0] = -1;
+        capture(a);
+        assertEquals(2000 + PrimitiveArrayStore.CHECKPOINT_INTERVAL - 1, store.getStoredElements());
+    }
+    @Test
+    void aLengthChangeStartsOver() {
+        PrimitiveArrayStore.Version first = capture(new int[] {1, 2});
+        PrimitiveArrayStore.Version second = capture(new int[] {1, 2, 3});
+        assertNotSame(first, second);
+        assertContents(new int[] {1, 2, 3}, second);
+        assertEquals(5, store.getStoredElements());
+    }
+    @Test
+    void otherKindsRoundTrip() {
+        double[] d = {0.5, -0.0, Double.NaN};
+        PrimitiveArrayStore.Version version = store.capture(2, RecordedValue.Kind.DOUBLE, d.clone());
+        for (int i = 0; i < d.length; i++) {
+            assertEquals(RecordedValue.ofDouble(d[i]), version.get(i));
+        }
+        boolean[] b = {true, false};
+        PrimitiveArrayStore.Version bools = store.capture(3, RecordedValue.Kind.BOOLEAN, b.clone());
+        assertSame(RecordedValue.ofBoolean(true), bools.get(0));
+        assertEquals(Arrays.asList(RecordedValue.ofBoolean(false)), Arrays.asList(bools.get(1)));
+    }
+    @Test
+    void arraysNotSeenDuringAStepAreForgotten() {
+        int[] a = {1, 2, 3};
+        PrimitiveArrayStore.Version first = capture(a);
+        store.startStep();
+        assertSame(first, capture(a));
+        store.capture(2, RecordedValue.Kind.INT, new int[] {4});
+        store.startStep();
+        assertEquals(2, store.size());
+        store.capture(2, RecordedValue.Kind.INT, new int[] {4});
+        store.startStep();
+        assertEquals(1, store.size());
+        assertNotSame(first, capture(a));
+        assertEquals(7, store.getStoredElements());
+    }
+    @Test
+    void outOfRangeIndexIsRejected() {
+        PrimitiveArrayStore.Version version = capture(new int[] {1});
+        assertThrows(IndexOutOfBoundsException.class, () -> version.get(1));
+    }
+}
@@ -0,0 +1,56 @@
+package models;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+class RecordedValueTest {
+    @Test
+    void floatingValuesKeepTheirExactBits() {
+        assertEquals(Double.doubleToRawLongBits(-0.0), RecordedValue.ofDouble(-0.0).longValue());
+        assertEquals(0.1f, RecordedValue.ofFloat(0.1f).doubleValue(), 0.0);
+        assertTrue(Double.isNaN(RecordedValue.ofDouble(Double.NaN).doubleValue()));
+        assertNotEquals(RecordedValue.ofDouble(0.0), RecordedValue.ofDouble(-0.0));
+        assertEquals("0.1", RecordedValue.ofFloat(0.1f).toString());
+    }
+    @Test
+    void sameBitsOfDifferentKindsAreDifferentValues() {
+        assertNotEquals(RecordedValue.ofInt(1), RecordedValue.ofLong(1));
+        assertNotEquals(RecordedValue.ofChar('A'), RecordedValue.ofInt('A'));
+        assertEquals(RecordedValue.ofInt(42), RecordedValue.ofInt(42));
+        assertEquals(RecordedValue.ofInt(42).hashCode(), RecordedValue.ofInt(42).hashCode());
+    }
+    @Test
+    void booleansAndNullAreShared() {
+        assertSame(RecordedValue.ofBoolean(true), RecordedValue.ofBoolean(true));
+        assertSame(RecordedValue.NULL, RecordedValue.ofText("null"));
+        assertTrue(RecordedValue.NULL.isNull());
+    }
+    @Test
+    void stringsAreNotInternedGlobally() {
+        String built = new StringBuilder("ab").append("c").toString();
+        assertSame(built, RecordedValue.ofString(built).getText());
+        assertEquals(RecordedValue.ofString("abc"), RecordedValue.ofString(built));
+        assertEquals("\"abc\"", RecordedValue.ofString(built).toString());
+    }
+    @Test
+    void referencesCarryIdSizeAndType() {
+        RecordedValue array = RecordedValue.ofArray("int[]", 7, 3);
+        assertTrue(array.isReference());
+        assertEquals(7, array.getObjectId());
+        assertEquals("int[] (size = 3)", array.toString());
+        assertEquals("java.util.ArrayList (size = 2)", RecordedValue.ofObject("java.util.ArrayList", 8, 2).toString());
+        assertEquals("Foo@9", RecordedValue.ofObject("Foo", 9, -1).toString());
+        assertNotEquals(RecordedValue.ofObject("Foo", 9, -1), RecordedValue.ofObject("Foo", 10, -1));
+        assertEquals(-1, RecordedValue.ofLong(7).getObjectId());
+    }
+    @Test
+    void kindPredicates() {
+        assertTrue(RecordedValue.ofByte((byte) 1).isIntegral());
+        assertTrue(RecordedValue.ofLong(1).isIntegral());
+        assertFalse(RecordedValue.ofChar('a').isIntegral());
+        assertTrue(RecordedValue.ofFloat(1f).isFloating());
+        assertFalse(RecordedValue.ofString("x").isReference());
+    }
+}
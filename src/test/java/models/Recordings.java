@@ -0,0 +1,57 @@
+package models;
+import com.sun.jdi.VirtualMachine;
+import commands.CommandResult;
+import dbg.ScriptableDebugger;
+import io.InputReader;
+import io.ResultPresenter;
+/**
+ * Enregistre un programme de test en entier dans une VM lancée par JDI, sans console :
+ * le mode replay reçoit aussitôt {@code quit}.
+ */
+public final class Recordings {
+    private Recordings() {
+    }
+    public static DebuggerState record(Class<?> debuggee) {
+        ScriptableDebugger debugger = new ScriptableDebugger(true, new QuitReader(), new SilentPresenter());
+        debugger.attachTo(debuggee);
+        return debugger.getState();
+    }
+    /** @param traceMode mode de trace JDI de la VM lancée, voir {@link VirtualMachine#setDebugTraceMode} */
+    public static DebuggerState record(Class<?> debuggee, int traceMode) {
+        ScriptableDebugger debugger = new ScriptableDebugger(true, new QuitReader(), new SilentPresenter()) {
+            @Override
+            protected VirtualMachine connectAndLaunchVM() throws Exception {
+                VirtualMachine vm = super.connectAndLaunchVM();
+                vm.setDebugTraceMode(traceMode);
+                return vm;
+            }
+        };
+        debugger.attachTo(debuggee);
+        return debugger.getState();
+    }
+    private static final class QuitReader implements InputReader {
+        @Override
+        public String readLine() { return "quit"; }
+        @Override
+        public String readLine(String prompt) { return "quit"; }
+        @Override
+        public boolean hasInput() { return true; }
+        @Override
+        public void close() {
+        }
+    }
+    private static final class SilentPresenter implements ResultPresenter {
+        @Override
+        public void displayResult(CommandResult result) {
+        }
+        @Override
+        public void info(String message) {
+        }
+        @Override
+        public void error(String message) {
+        }
+        @Override
+        public void warn(String message) {
+        }
+    }
+}
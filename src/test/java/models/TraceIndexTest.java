@@ -0,0 +1,39 @@
+package models;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+class TraceIndexTest {
+    @Test
+    void countsCallsMadeWithoutAStepInTheCaller() {
+        DebuggerState state = Recordings.record(CallsDebuggee.class);
+        ExecutionHistory history = state.getExecutionHistory();
+        TraceIndex index = history.getTraceIndex(history.getAllSnapshots());
+        String className = CallsDebuggee.class.getName();
+        assertEquals(3, index.getMethodEntries(className, "a").length);
+        assertEquals(3, index.getMethodEntries(className, "b").length);
+        assertEquals(1, index.getMethodEntries(className, "main").length);
+    }
+    @Test
+    void countsEachCallFromALoopOutsideTheSteppedClass() {
+        ExecutionHistory history = Recordings.record(LoopCallsDebuggee.class).getExecutionHistory();
+        TraceIndex index = history.getTraceIndex(history.getAllSnapshots());
+        String className = LoopCallsDebuggee.class.getName();
+        assertEquals(4, index.getMethodEntries(className, "a").length);
+        assertEquals(4, index.getMethodEntries(className, "one").length);
+        assertEquals(1, index.getMethodEntries(className, "count").length);
+    }
+    @Test
+    void stepsAreBoundedToTheViewTheyWereAskedFor() {
+        ExecutionHistory history = Recordings.record(CallsDebuggee.class).getExecutionHistory();
+        List<ExecutionSnapshot> all = history.getAllSnapshots();
+        List<ExecutionSnapshot> early = all.subList(0, all.size() / 2);
+        String className = CallsDebuggee.class.getName();
+        int total = history.getTraceIndex(all).getStepsInMethod(className, "b").length;
+        int[] steps = TraceIndex.before(history.getTraceIndex(early).getStepsInMethod(className, "b"), early.size());
+        assertTrue(steps.length > 0 && steps.length < total, steps.length + " of " + total);
+        for (int step : steps) {
+            assertTrue(step < early.size(), "step " + step);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package models;
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+class VariableSnapshotTableTest {
+    private final VariableSnapshotTable table = new VariableSnapshotTable();
+    private static VariableSnapshot leaf(String name, int value, int frameIndex) {
+        return new VariableSnapshot(name, "int", RecordedValue.ofInt(value), "run", "Foo", frameIndex, 0, -1);
+    }
+    private static VariableSnapshot parent(List<VariableSnapshot> children, int frameIndex) {
+        return new VariableSnapshot("p", "Foo", RecordedValue.ofObject("Foo", 1, -1), "run", "Foo",
+                frameIndex, 1, -1, children);
+    }
+    @Test
+    void sameContentIsInternedOnce() {
+        VariableSnapshot first = table.intern(leaf("x", 1, 0));
+        assertSame(first, table.intern(leaf("x", 1, 0)));
+        assertEquals(1, table.size());
+    }
+    @Test
+    void anyDifferenceMakesANewNode() {
+        VariableSnapshot first = table.intern(leaf("x", 1, 0));
+        assertNotSame(first, table.intern(leaf("x", 2, 0)));
+        assertNotSame(first, table.intern(leaf("y", 1, 0)));
+        assertNotSame(first, table.intern(leaf("x", 1, 1)));
+        assertEquals(4, table.size());
+    }
+    @Test
+    void parentsWithTheSameInternedChildrenAreShared() {
+        VariableSnapshot a = table.intern(leaf("a", 1, 0));
+        VariableSnapshot b = table.intern(leaf("b", 2, 0));
+        VariableSnapshot first = table.intern(parent(Arrays.asList(a, b), 0));
+        VariableSnapshot second = table.intern(parent(Arrays.asList(table.intern(leaf("a", 1, 0)), b), 0));
+        assertSame(first, second);
+        VariableSnapshot changed = table.intern(parent(Arrays.asList(table.intern(leaf("a", 3, 0)), b), 0));
+        assertNotSame(first, changed);
+        assertSame(b, changed.getChildren().get(1));
+    }
+    @Test
+    void withFrameIndexMovesTheWholeSubtree() {
+        VariableSnapshot a = table.intern(leaf("a", 1, 0));
+        VariableSnapshot p = table.intern(parent(Arrays.asList(a), 0));
+        assertSame(p, table.withFrameIndex(p, 0));
+        VariableSnapshot moved = table.withFrameIndex(p, 2);
+        assertEquals(2, moved.getFrameIndex());
+        assertEquals(2, moved.getChildren().get(0).getFrameIndex());
+        assertSame(moved, table.withFrameIndex(p, 2));
+        assertSame(table.intern(leaf("a", 1, 2)), moved.getChildren().get(0));
+    }
+}
@@ -0,0 +1,102 @@
+package query;
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+class ExpressionParserTest {
+    /** Contexte à variables fixes ; les chemins sont joints par '.'. */
+    private static final class MapContext implements EvaluationContext {
+        private final Map<String, Object> values = new HashMap<>();
+        private final EvaluationContext previous;
+        MapContext(EvaluationContext previous) {
+            this.previous = previous;
+        }
+        MapContext with(String path, Object value) {
+            values.put(path, value);
+            return this;
+        }
+        @Override
+        public Object resolve(String[] path) {
+            String key = String.join(".", path);
+            return values.containsKey(key) ? values.get(key) : Values.UNDEFINED;
+        }
+        @Override
+        public Object builtin(String name) {
+            return name.equals("step") ? 7L : Values.UNDEFINED;
+        }
+        @Override
+        public EvaluationContext previous() {
+            return previous;
+        }
+    }
+    private static boolean test(String source, EvaluationContext context) {
+        return ExpressionParser.compile(source).test(context);
+    }
+    @Test
+    void comparesNumbersAcrossIntegralAndFloating() {
+        MapContext ctx = new MapContext(null).with("i", 500L).with("d", 2.5);
+        assertTrue(test("i == 500", ctx));
+        assertTrue(test("i >= 500 && i < 501", ctx));
+        assertTrue(test("d > 2 and d <= 2.5", ctx));
+        assertTrue(test("i != -1", ctx));
+        assertFalse(test("i > 500.5", ctx));
+    }
+    @Test
+    void andBindsTighterThanOr() {
+        MapContext ctx = new MapContext(null).with("a", 1L).with("b", 2L);
+        assertTrue(test("a == 1 || a == 2 && b == 3", ctx));
+        assertFalse(test("(a == 1 || a == 2) && b == 3", ctx));
+        assertTrue(test("not a == 2 and !(b == 3)", ctx));
+    }
+    @Test
+    void stringsNullsAndBooleans() {
+        MapContext ctx = new MapContext(null).with("name", "bob").with("o", null).with("flag", Boolean.TRUE);
+        assertTrue(test("name == 'bob' && name < \"carl\"", ctx));
+        assertTrue(test("o == null && isnull(o)", ctx));
+        assertTrue(test("flag == true", ctx));
+        assertTrue(test("size(name) == 3", ctx));
+    }
+    @Test
+    void pathsAndArrayIndexesAreResolvedAsSegments() {
+        MapContext ctx = new MapContext(null).with("this.items.[2]", 9L).with("p.x", 1L);
+        assertTrue(test("this.items[2] == 9", ctx));
+        assertTrue(test("p.x == 1", ctx));
+        assertTrue(test("$step == 7", ctx));
+    }
+    @Test
+    void undefinedValuesNeverCompare() {
+        MapContext ctx = new MapContext(null);
+        assertFalse(test("missing == missing", ctx));
+        assertFalse(test("missing != 1", ctx));
+        assertFalse(test("missing < 1", ctx));
+    }
+    @Test
+    void temporalOperatorsReadThePreviousStep() {
+        MapContext before = new MapContext(null).with("i", 1L);
+        MapContext after = new MapContext(before).with("i", 2L);
+        assertTrue(test("i changes", after));
+        assertTrue(test("i increases", after));
+        assertFalse(test("i decreases", after));
+        assertTrue(test("prev(i) == 1", after));
+        assertFalse(test("i changes", before));
+        assertSame(Values.UNDEFINED, ExpressionParser.compile("prev(i)").evaluate(before));
+    }
+    @Test
+    void malformedExpressionsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ExpressionParser.compile("i == "));
+        assertThrows(IllegalArgumentException.class, () -> ExpressionParser.compile("i == 1 2"));
+        assertThrows(IllegalArgumentException.class, () -> ExpressionParser.compile("name == 'bob"));
+        assertThrows(IllegalArgumentException.class, () -> ExpressionParser.compile("frob(i)"));
+        assertThrows(IllegalArgumentException.class, () -> ExpressionParser.compile("i # 1"));
+        assertThrows(IllegalArgumentException.class, () -> ExpressionParser.compile("a[x] == 1"));
+    }
+    @Test
+    void numbersKeepTheirType() {
+        assertEquals(12L, ExpressionParser.compile("12").evaluate(new MapContext(null)));
+        assertEquals(-1.5, ExpressionParser.compile("-1.5").evaluate(new MapContext(null)));
+    }
+}
@@ -0,0 +1,52 @@
+package query;
+import models.CallsDebuggee;
+import models.DebuggerState;
+import models.Recordings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+@Timeout(60)
+class QueryEngineTest {
+    private QueryEngine engine;
+    @BeforeEach
+    void record() {
+        DebuggerState state = Recordings.record(CallsDebuggee.class);
+        engine = new QueryEngine(state.getExecutionHistory());
+    }
+    @Test
+    void returnsStepsInOrder() throws InterruptedException {
+        List<QueryResult> results = engine.execute(QueryParser.parse("steps in CallsDebuggee.b"));
+        assertEquals(6, results.size());
+        for (int i = 1; i < results.size(); i++) {
+            assertTrue(results.get(i - 1).getStepNumber() < results.get(i).getStepNumber());
+        }
+    }
+    @Test
+    void failingSinkFailsTheQueryInsteadOfHanging() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> engine.execute(QueryParser.parse("steps"), result -> {
+                    throw new IllegalArgumentException("sink");
+                }));
+        assertEquals("sink", e.getCause().getMessage());
+    }
+    @Test
+    void failingCompletionListenerStillFinishes() throws InterruptedException {
+        QueryExecution execution = engine.start(QueryParser.parse("steps"), new QueryListener() {
+            @Override
+            public void onResults(List<QueryResult> results) {
+            }
+            @Override
+            public void onComplete(int resultCount, boolean cancelled) {
+                throw new IllegalArgumentException("complete");
+            }
+        });
+        execution.await();
+        assertTrue(execution.isDone());
+        assertNotNull(execution.getFailure());
+    }
+}